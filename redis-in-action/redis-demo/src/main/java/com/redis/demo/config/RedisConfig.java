@@ -1,17 +1,18 @@
 package com.redis.demo.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.demo.serializer.Lz4RedisSerializer;
+import com.redis.demo.serializer.SmileRedisSerializer;
 import com.redis.demo.service.MessageReceive;
+import com.redis.demo.service.StringNearCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -30,17 +31,31 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Template for object payloads: Smile encoded values, LZ4 compressed from {@code compression-threshold} bytes up.
+     * Keys and hash keys stay plain strings so they remain readable in redis-cli.
+     */
+    @Bean(name = "binaryRedisTemplate")
+    public RedisTemplate<String, Object> binaryRedisTemplate(RedisConnectionFactory factory,
+                                                             @Value("${redis-demo.serializer.compression-threshold:1024}") int compressionThreshold) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        RedisSerializer<Object> valueSerializer = new Lz4RedisSerializer<>(new SmileRedisSerializer(), compressionThreshold);
+        template.setConnectionFactory(factory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
+        return template;
+    }
+
     @Bean
-    public RedisMessageListenerContainer container1(RedisConnectionFactory redisConnectionFactory, MessageListenerAdapter listenerAdapter1, MessageListenerAdapter listenerAdapter2) {
+    public RedisMessageListenerContainer container1(RedisConnectionFactory redisConnectionFactory, MessageListenerAdapter listenerAdapter1, MessageListenerAdapter nearCacheListenerAdapter) {
         RedisMessageListenerContainer redisMessageListenerContainer = new RedisMessageListenerContainer();
         redisMessageListenerContainer.setConnectionFactory(redisConnectionFactory);
         redisMessageListenerContainer.addMessageListener(listenerAdapter1, new PatternTopic("TestChannel"));
-        Jackson2JsonRedisSerializer seria = new Jackson2JsonRedisSerializer(Object.class);
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
-        seria.setObjectMapper(objectMapper);
-        redisMessageListenerContainer.setTopicSerializer(seria);
+        redisMessageListenerContainer.addMessageListener(nearCacheListenerAdapter, new ChannelTopic(StringNearCache.INVALIDATION_CHANNEL));
+        // Channel names must be encoded the same way RedisTemplate.convertAndSend encodes them
+        redisMessageListenerContainer.setTopicSerializer(new StringRedisSerializer());
         return redisMessageListenerContainer;
     }
 
@@ -48,4 +63,9 @@ public class RedisConfig {
     public MessageListenerAdapter listenerAdapter1(MessageReceive messageReceive) {
         return new MessageListenerAdapter(messageReceive, "getMessage");
     }
+
+    @Bean
+    public MessageListenerAdapter nearCacheListenerAdapter(StringNearCache stringNearCache) {
+        return new MessageListenerAdapter(stringNearCache, "invalidate");
+    }
 }
@@ -0,0 +1,178 @@
+package com.redis.demo.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hands messages from the listener thread to a pool of workers through a {@link RingBuffer}.
+ * Each worker drains up to {@code batchSize} messages at a time and passes them to the handler in one call.
+ */
+@Slf4j
+public class MessageDispatcher<T> implements AutoCloseable {
+
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RingBuffer<Envelope<T>> buffer;
+
+    private final Consumer<List<T>> handler;
+
+    private final int batchSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Thread[] workers;
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder handled = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final AtomicLong lastLagNanos = new AtomicLong();
+
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public MessageDispatcher(String name, int capacity, int workerCount, int batchSize,
+                             OverflowPolicy overflowPolicy, Consumer<List<T>> handler) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.handler = handler;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::work, name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Queue a message for the workers
+     *
+     * @param message message
+     * @return false when the message was dropped because the buffer is full
+     */
+    public boolean publish(T message) {
+        Envelope<T> envelope = new Envelope<>(message, System.nanoTime());
+        if (buffer.offer(envelope)) {
+            published.increment();
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            dropped.increment();
+            return false;
+        }
+        long idle = 1;
+        while (!buffer.offer(envelope)) {
+            if (!running) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.parkNanos(idle);
+            idle = Math.min(idle << 1, MAX_IDLE_NANOS);
+        }
+        published.increment();
+        return true;
+    }
+
+    /**
+     * Messages queued but not yet taken by a worker
+     */
+    public int getDepth() {
+        return buffer.size();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getHandled() {
+        return handled.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Time the oldest message of the last batch spent in the buffer
+     */
+    public long getLastLag(TimeUnit unit) {
+        return unit.convert(lastLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLag(TimeUnit unit) {
+        return unit.convert(maxLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop the workers once the buffer is drained
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void work() {
+        List<T> batch = new ArrayList<>(batchSize);
+        long idle = 1;
+        while (true) {
+            long oldest = 0;
+            Envelope<T> envelope;
+            while (batch.size() < batchSize && (envelope = buffer.poll()) != null) {
+                if (batch.isEmpty()) {
+                    oldest = envelope.publishedAt;
+                }
+                batch.add(envelope.message);
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(idle);
+                idle = Math.min(idle << 1, MAX_IDLE_NANOS);
+                continue;
+            }
+            idle = 1;
+            long lag = System.nanoTime() - oldest;
+            lastLagNanos.set(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+            try {
+                handler.accept(batch);
+                handled.add(batch.size());
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                log.warn("Message handler failed [batch:{}]", batch.size(), e);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private static final class Envelope<T> {
+        private final T message;
+        private final long publishedAt;
+
+        private Envelope(T message, long publishedAt) {
+            this.message = message;
+            this.publishedAt = publishedAt;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.redis.demo.dispatch;
+
+/**
+ * What {@link MessageDispatcher#publish} does when the ring buffer is full
+ */
+public enum OverflowPolicy {
+    /**
+     * Discard the new message and count it as dropped
+     */
+    DROP,
+    /**
+     * Wait until a worker frees a slot, pushing back on the publishing thread
+     */
+    BLOCK
+}
@@ -0,0 +1,71 @@
+package com.redis.demo.hash;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An object loaded from a hash together with the field values last seen in Redis,
+ * so a save only has to write the fields that changed since.
+ */
+public class HashEntity<T> {
+
+    private final String key;
+
+    private final T object;
+
+    private final PojoHashMapper<T> mapper;
+
+    private Map<String, String> snapshot;
+
+    public HashEntity(String key, T object, PojoHashMapper<T> mapper, Map<String, String> snapshot) {
+        this.key = key;
+        this.object = object;
+        this.mapper = mapper;
+        this.snapshot = new HashMap<>(snapshot);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public T getObject() {
+        return object;
+    }
+
+    /**
+     * Fields whose value differs from the snapshot and is not null
+     */
+    public Map<String, String> changedFields() {
+        Map<String, String> changed = new LinkedHashMap<>();
+        mapper.toHash(object).forEach((field, value) -> {
+            if (!value.equals(snapshot.get(field))) {
+                changed.put(field, value);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Fields present in the snapshot that are null now
+     */
+    public List<String> removedFields() {
+        Map<String, String> current = mapper.toHash(object);
+        List<String> removed = new ArrayList<>();
+        snapshot.keySet().forEach(field -> {
+            if (!current.containsKey(field)) {
+                removed.add(field);
+            }
+        });
+        return removed;
+    }
+
+    /**
+     * Mark the current state as written
+     */
+    public void markClean() {
+        snapshot = mapper.toHash(object);
+    }
+}
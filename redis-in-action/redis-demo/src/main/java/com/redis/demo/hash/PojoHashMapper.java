@@ -0,0 +1,175 @@
+package com.redis.demo.hash;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps a POJO to a Redis hash, one hash field per non-static, non-transient field.
+ * Reflection only happens once per class in {@link #of(Class)}; afterwards fields are read and written
+ * through cached {@link MethodHandle}s.
+ */
+public final class PojoHashMapper<T> {
+
+    private static final ClassValue<PojoHashMapper<?>> MAPPERS = new ClassValue<PojoHashMapper<?>>() {
+        @Override
+        protected PojoHashMapper<?> computeValue(Class<?> type) {
+            return new PojoHashMapper<>(type);
+        }
+    };
+
+    private final MethodHandle constructor;
+
+    private final List<Property> properties;
+
+    private final Map<String, Property> propertiesByName;
+
+    private PojoHashMapper(Class<T> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Constructor<T> noArgs = type.getDeclaredConstructor();
+            noArgs.setAccessible(true);
+            constructor = lookup.unreflectConstructor(noArgs);
+            List<Property> properties = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    properties.add(new Property(field.getName(), lookup.unreflectGetter(field),
+                            lookup.unreflectSetter(field), parser(field.getType())));
+                }
+            }
+            this.properties = Collections.unmodifiableList(properties);
+            Map<String, Property> byName = new LinkedHashMap<>();
+            properties.forEach(property -> byName.put(property.name, property));
+            this.propertiesByName = byName;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot map " + type.getName() + " to a hash, a no-args constructor is required", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PojoHashMapper<T> of(Class<T> type) {
+        return (PojoHashMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Hash field names in declaration order
+     */
+    public List<String> fieldNames() {
+        List<String> names = new ArrayList<>(properties.size());
+        properties.forEach(property -> names.add(property.name));
+        return names;
+    }
+
+    /**
+     * Non-null field values as strings, keyed by field name
+     */
+    public Map<String, String> toHash(T object) {
+        Map<String, String> hash = new LinkedHashMap<>();
+        for (Property property : properties) {
+            Object value = property.get(object);
+            if (value != null) {
+                hash.put(property.name, value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * New instance populated from the hash, unknown hash fields are ignored
+     */
+    public T fromHash(Map<String, String> hash) {
+        T object = newInstance();
+        hash.forEach((name, value) -> set(object, name, value));
+        return object;
+    }
+
+    /**
+     * Set one field from its hash representation, ignored when the class has no such field
+     */
+    public void set(T object, String name, String value) {
+        Property property = propertiesByName.get(name);
+        if (property != null && value != null) {
+            property.set(object, property.parser.apply(value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        try {
+            return (T) constructor.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot instantiate " + constructor.type().returnType().getName(), e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> parser(Class<?> type) {
+        if (type == String.class) {
+            return value -> value;
+        }
+        if (type == int.class || type == Integer.class) {
+            return Integer::valueOf;
+        }
+        if (type == long.class || type == Long.class) {
+            return Long::valueOf;
+        }
+        if (type == double.class || type == Double.class) {
+            return Double::valueOf;
+        }
+        if (type == float.class || type == Float.class) {
+            return Float::valueOf;
+        }
+        if (type == short.class || type == Short.class) {
+            return Short::valueOf;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean::valueOf;
+        }
+        if (type.isEnum()) {
+            return value -> Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        throw new IllegalArgumentException("Unsupported hash field type: " + type.getName());
+    }
+
+    private static final class Property {
+        private final String name;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final Function<String, Object> parser;
+
+        private Property(String name, MethodHandle getter, MethodHandle setter, Function<String, Object> parser) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+            this.parser = parser;
+        }
+
+        private Object get(Object target) {
+            try {
+                return getter.invoke(target);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot read field " + name, e);
+            }
+        }
+
+        private void set(Object target, Object value) {
+            try {
+                setter.invoke(target, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot write field " + name, e);
+            }
+        }
+    }
+}
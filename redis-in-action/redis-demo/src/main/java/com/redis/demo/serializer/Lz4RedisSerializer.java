@@ -0,0 +1,102 @@
+package com.redis.demo.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wraps another serializer and LZ4-compresses payloads at or above the threshold.
+ * Every value starts with a one byte header: {@code 0} followed by the raw payload, or {@code 1}
+ * followed by the uncompressed length (4 bytes) and the LZ4 block.
+ */
+public class Lz4RedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final byte RAW = 0;
+
+    private static final byte LZ4 = 1;
+
+    /**
+     * Largest value Redis stores
+     */
+    private static final int MAX_LENGTH = 512 * 1024 * 1024;
+
+    /**
+     * An LZ4 block never expands data by more than this factor, a larger header is corrupt
+     */
+    private static final int MAX_RATIO = 255;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+    /**
+     * Values come from Redis and may be corrupt, so the bounds-checked decompressor is used
+     */
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final RedisSerializer<T> delegate;
+
+    private final int threshold;
+
+    public Lz4RedisSerializer(RedisSerializer<T> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (raw == null) {
+            return null;
+        }
+        if (raw.length < threshold) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + raw.length);
+            return buffer.put(RAW).put(raw).array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + COMPRESSOR.maxCompressedLength(raw.length));
+        buffer.put(LZ4).putInt(raw.length);
+        int length = COMPRESSOR.compress(raw, 0, raw.length, buffer.array(), buffer.position());
+        byte[] result = new byte[buffer.position() + length];
+        System.arraycopy(buffer.array(), 0, result, 0, result.length);
+        return result;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte header = buffer.get();
+        if (header == RAW) {
+            byte[] raw = new byte[buffer.remaining()];
+            buffer.get(raw);
+            return delegate.deserialize(raw);
+        }
+        if (header != LZ4) {
+            throw new SerializationException("Unknown compression header: " + header);
+        }
+        if (buffer.remaining() < Integer.BYTES) {
+            throw new SerializationException("Truncated LZ4 header");
+        }
+        int length = buffer.getInt();
+        long limit = Math.min(MAX_LENGTH, (long) buffer.remaining() * MAX_RATIO + 16);
+        if (length < 0 || length > limit) {
+            throw new SerializationException("Invalid uncompressed length: " + length);
+        }
+        byte[] raw = new byte[length];
+        int decompressed;
+        try {
+            decompressed = DECOMPRESSOR.decompress(bytes, buffer.position(), buffer.remaining(), raw, 0, length);
+        } catch (LZ4Exception e) {
+            throw new SerializationException("Could not decompress LZ4: " + e.getMessage(), e);
+        }
+        if (decompressed != length) {
+            throw new SerializationException("LZ4 block decompressed to " + decompressed + " bytes, header says " + length);
+        }
+        return delegate.deserialize(raw);
+    }
+}
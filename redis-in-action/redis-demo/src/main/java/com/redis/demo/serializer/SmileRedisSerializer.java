@@ -0,0 +1,85 @@
+package com.redis.demo.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Binary counterpart of the Jackson JSON serializer: same object mapping and default typing,
+ * encoded as Smile (binary JSON with back-referenced property names) instead of text.
+ * Type ids in a payload are only honoured for this application's classes and the JDK value and
+ * collection types listed in {@link #TYPES}, so a value written to Redis by someone else cannot make
+ * the reader instantiate arbitrary classes.
+ */
+public class SmileRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final PolymorphicTypeValidator TYPES = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType("com.redis.demo.")
+            .allowIfSubType(ArrayList.class)
+            .allowIfSubType(LinkedList.class)
+            .allowIfSubType(HashSet.class)
+            .allowIfSubType(LinkedHashSet.class)
+            .allowIfSubType(TreeSet.class)
+            .allowIfSubType(HashMap.class)
+            .allowIfSubType(LinkedHashMap.class)
+            .allowIfSubType(TreeMap.class)
+            .allowIfSubType(Date.class)
+            .allowIfSubType(BigDecimal.class)
+            .allowIfSubType(BigInteger.class)
+            .allowIfSubTypeIsArray()
+            .build();
+
+    private final ObjectMapper objectMapper;
+
+    public SmileRedisSerializer() {
+        objectMapper = new ObjectMapper(new SmileFactory());
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(TYPES,
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(bytes, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read Smile: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.redis.demo.service;
+
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Redis strings used as bitmaps, e.g. one key per day with one bit per user id for daily-active-user tracking.
+ */
+@Service
+public class BitmapRedisService {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Key of the bitmap for one day, e.g. {@code active:20221016}
+     *
+     * @param prefix prefix
+     * @param day    day
+     * @return String
+     */
+    public String dayKey(String prefix, LocalDate day) {
+        return prefix + ":" + DAY.format(day);
+    }
+
+    /**
+     * Command 'SETBIT' (pipelined)
+     * Sets all given offsets in one round trip
+     *
+     * @param key     key
+     * @param offsets offsets, e.g. user ids
+     * @param value   value
+     * @return the previous value of each bit, in the same order as {@code offsets}
+     */
+    public List<Boolean> setBits(String key, long[] offsets, boolean value) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (long offset : offsets) {
+                stringConnection.setBit(key, offset, value);
+            }
+            return null;
+        });
+        return results.stream().map(Boolean.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Command 'GETBIT'
+     *
+     * @param key    key
+     * @param offset offset
+     * @return Boolean
+     */
+    public Boolean getBit(String key, long offset) {
+        return stringRedisTemplate.opsForValue().getBit(key, offset);
+    }
+
+    /**
+     * Command 'BITCOUNT'
+     * BITCOUNT key-name [start end]—Counts the number of bits set to 1 in the string
+     *
+     * @param key key
+     * @return Long
+     */
+    public Long bitCount(String key) {
+        return stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                ((StringRedisConnection) connection).bitCount(key));
+    }
+
+    /**
+     * Command 'BITCOUNT'
+     * Counts the set bits between the start and end byte offsets, inclusive
+     *
+     * @param key   key
+     * @param start start byte
+     * @param end   end byte
+     * @return Long
+     */
+    public Long bitCount(String key, long start, long end) {
+        return stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                ((StringRedisConnection) connection).bitCount(key, start, end));
+    }
+
+    /**
+     * Command 'BITOP'
+     * BITOP operation dest-key key-name [key-name ...]—Performs AND, OR, XOR or NOT over the strings and stores the result in the destination key
+     *
+     * @param op      op
+     * @param destKey destKey
+     * @param keys    keys
+     * @return the size of the destination string in bytes
+     */
+    public Long bitOp(RedisStringCommands.BitOperation op, String destKey, String... keys) {
+        return stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                ((StringRedisConnection) connection).bitOp(op, destKey, keys));
+    }
+
+    /**
+     * Users active on every one of the given days, stored in {@code destKey}
+     *
+     * @param prefix  prefix
+     * @param destKey destKey
+     * @param days    days
+     * @return number of users
+     */
+    public Long countActiveOnAll(String prefix, String destKey, LocalDate... days) {
+        bitOp(RedisStringCommands.BitOperation.AND, destKey, dayKeys(prefix, days));
+        return bitCount(destKey);
+    }
+
+    /**
+     * Users active on at least one of the given days, stored in {@code destKey}
+     *
+     * @param prefix  prefix
+     * @param destKey destKey
+     * @param days    days
+     * @return number of users
+     */
+    public Long countActiveOnAny(String prefix, String destKey, LocalDate... days) {
+        bitOp(RedisStringCommands.BitOperation.OR, destKey, dayKeys(prefix, days));
+        return bitCount(destKey);
+    }
+
+    /**
+     * Fetches the raw bitmap with a single GET
+     *
+     * @param key key
+     * @return the bitmap bytes, empty when the key does not exist
+     */
+    public byte[] getBytes(String key) {
+        byte[] bytes = stringRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8)));
+        return bytes == null ? new byte[0] : bytes;
+    }
+
+    /**
+     * Visits every set bit offset in ascending order.
+     * The bitmap is read once and scanned locally instead of issuing a GETBIT per offset.
+     *
+     * @param key      key
+     * @param consumer consumer
+     */
+    public void forEachSetBit(String key, LongConsumer consumer) {
+        byte[] bytes = getBytes(key);
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xFF;
+            while (b != 0) {
+                // Redis numbers bits from the most significant bit of each byte
+                int bit = Integer.numberOfLeadingZeros(b) - 24;
+                consumer.accept((long) i * 8 + bit);
+                b &= ~(0x80 >>> bit);
+            }
+        }
+    }
+
+    /**
+     * Set bit offsets in ascending order, read with a single GET
+     *
+     * @param key key
+     * @return LongStream
+     */
+    public LongStream setBitOffsets(String key) {
+        LongStream.Builder builder = LongStream.builder();
+        forEachSetBit(key, builder);
+        return builder.build();
+    }
+
+    private String[] dayKeys(String prefix, LocalDate... days) {
+        return Arrays.stream(days).map(day -> dayKey(prefix, day)).toArray(String[]::new);
+    }
+}
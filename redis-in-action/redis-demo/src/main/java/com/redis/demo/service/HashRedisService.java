@@ -0,0 +1,130 @@
+package com.redis.demo.service;
+
+import com.redis.demo.hash.HashEntity;
+import com.redis.demo.hash.PojoHashMapper;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores POJOs as Redis hashes, one hash field per object field, so single fields can be read and
+ * written without moving the whole object.
+ */
+@Service
+public class HashRedisService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Command `HSET`
+     * Writes every non-null field of the object
+     *
+     * @param key    key
+     * @param object object
+     * @return the entity to pass to {@link #update(HashEntity)} later
+     */
+    @SuppressWarnings("unchecked")
+    public <T> HashEntity<T> save(String key, T object) {
+        PojoHashMapper<T> mapper = PojoHashMapper.of((Class<T>) object.getClass());
+        Map<String, String> hash = mapper.toHash(object);
+        stringRedisTemplate.opsForHash().putAll(key, hash);
+        return new HashEntity<>(key, object, mapper, hash);
+    }
+
+    /**
+     * Command `HGETALL`
+     *
+     * @param type type
+     * @param key  key
+     * @return the entity, null when the key does not exist
+     */
+    public <T> HashEntity<T> load(Class<T> type, String key) {
+        Map<String, String> hash = stringRedisTemplate.<String, String>opsForHash().entries(key);
+        if (hash.isEmpty()) {
+            return null;
+        }
+        PojoHashMapper<T> mapper = PojoHashMapper.of(type);
+        return new HashEntity<>(key, mapper.fromHash(hash), mapper, hash);
+    }
+
+    /**
+     * Command `HMGET`
+     * Loads only the given fields, the others keep their default value
+     *
+     * @param type   type
+     * @param key    key
+     * @param fields fields
+     * @return T
+     */
+    public <T> T load(Class<T> type, String key, String... fields) {
+        PojoHashMapper<T> mapper = PojoHashMapper.of(type);
+        List<String> values = stringRedisTemplate.<String, String>opsForHash().multiGet(key, Arrays.asList(fields));
+        Map<String, String> hash = new HashMap<>();
+        for (int i = 0; i < fields.length; i++) {
+            if (values.get(i) != null) {
+                hash.put(fields[i], values.get(i));
+            }
+        }
+        return mapper.fromHash(hash);
+    }
+
+    /**
+     * Command `HGETALL` (pipelined)
+     * Loads many objects in one round trip
+     *
+     * @param type type
+     * @param keys keys
+     * @return one entity per key in the same order, null where the key does not exist
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<HashEntity<T>> loadAll(Class<T> type, List<String> keys) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            keys.forEach(stringConnection::hGetAll);
+            return null;
+        });
+        PojoHashMapper<T> mapper = PojoHashMapper.of(type);
+        List<HashEntity<T>> entities = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Map<String, String> hash = (Map<String, String>) results.get(i);
+            entities.add(hash == null || hash.isEmpty() ? null : new HashEntity<>(keys.get(i), mapper.fromHash(hash), mapper, hash));
+        }
+        return entities;
+    }
+
+    /**
+     * Command `HSET` / `HDEL`
+     * Writes only the fields changed since the entity was loaded or last saved, and deletes fields set to null
+     *
+     * @param entity entity
+     * @return number of fields written or deleted
+     */
+    public <T> int update(HashEntity<T> entity) {
+        Map<String, String> changed = entity.changedFields();
+        List<String> removed = entity.removedFields();
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return 0;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            if (!changed.isEmpty()) {
+                stringConnection.hMSet(entity.getKey(), changed);
+            }
+            if (!removed.isEmpty()) {
+                stringConnection.hDel(entity.getKey(), removed.toArray(new String[0]));
+            }
+            return null;
+        });
+        entity.markClean();
+        return changed.size() + removed.size();
+    }
+}
@@ -0,0 +1,312 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboards on sorted sets.
+ * Every score update goes to the all-time board and to the current time bucket; buckets are merged into a
+ * rolling window board with ZUNIONSTORE on a schedule. Each board keeps a local copy of its top entries,
+ * patched with the scores returned by ZINCRBY, so small top-N reads do not touch Redis. Concurrent
+ * increments can return their scores out of order; increments only raise scores, so the highest result
+ * per member wins, and a decrease invalidates the copy instead of being patched in.
+ */
+@Slf4j
+@Service
+public class LeaderboardService {
+
+    /**
+     * KEYS[1] board; ARGV[1] member, ARGV[2] entries on each side.
+     * Returns the member's 0-based rank followed by member/score pairs from best to worst, or an empty reply.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> AROUND = new DefaultRedisScript<>(
+            "local rank = redis.call('ZREVRANK', KEYS[1], ARGV[1])\n" +
+            "if not rank then return {} end\n" +
+            "local start = math.max(0, rank - tonumber(ARGV[2]))\n" +
+            "local entries = redis.call('ZREVRANGE', KEYS[1], start, rank + tonumber(ARGV[2]), 'WITHSCORES')\n" +
+            "table.insert(entries, 1, tostring(rank))\n" +
+            "return entries", List.class);
+
+    private final Map<String, TopCache> topCaches = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${redis-demo.leaderboard.top-cache-size:100}")
+    private int topCacheSize;
+
+    @Value("${redis-demo.leaderboard.bucket-ms:3600000}")
+    private long bucketMs;
+
+    @Value("${redis-demo.leaderboard.window-buckets:24}")
+    private int windowBuckets;
+
+    @Value("${redis-demo.leaderboard.merge-interval-ms:60000}")
+    private long mergeIntervalMs;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::mergeAndRefresh, mergeIntervalMs, mergeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Command `ZINCRBY` (pipelined)
+     * Adds the deltas to the all-time board and the current bucket in one round trip
+     *
+     * @param board  board
+     * @param deltas member to score delta
+     */
+    public void incrementScores(String board, Map<String, Double> deltas) {
+        TopCache cache = topCache(board);
+        long epoch = cache.epoch();
+        String bucket = bucketKey(board, System.currentTimeMillis() / bucketMs);
+        long ttlSeconds = TimeUnit.MILLISECONDS.toSeconds(bucketMs * (windowBuckets + 1));
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            deltas.forEach((member, delta) -> {
+                stringConnection.zIncrBy(board, delta, member);
+                stringConnection.zIncrBy(bucket, delta, member);
+            });
+            stringConnection.expire(bucket, ttlSeconds);
+            return null;
+        });
+        int i = 0;
+        for (String member : deltas.keySet()) {
+            cache.update(epoch, member, (Double) results.get(i), deltas.get(member) < 0);
+            i += 2;
+        }
+    }
+
+    /**
+     * Command `ZREVRANGE ... WITHSCORES`
+     * Served from the local top cache when {@code n} fits in it
+     *
+     * @param board board
+     * @param n     n
+     * @return the best n entries, best first
+     */
+    public List<ZSetOperations.TypedTuple<String>> top(String board, int n) {
+        if (n <= topCacheSize) {
+            TopCache cache = topCache(board);
+            List<ZSetOperations.TypedTuple<String>> cached = cache.top(n);
+            if (cached != null) {
+                return cached;
+            }
+            long epoch = cache.epoch();
+            List<ZSetOperations.TypedTuple<String>> fetched = fetchTop(board, topCacheSize);
+            cache.load(epoch, fetched);
+            return new ArrayList<>(fetched.subList(0, Math.min(n, fetched.size())));
+        }
+        return fetchTop(board, n);
+    }
+
+    /**
+     * Command `ZREVRANK` + `ZREVRANGE` in one script
+     *
+     * @param board  board
+     * @param member member
+     * @param n      entries on each side of the member
+     * @return the window with the member's rank, null when the member is not on the board
+     */
+    @SuppressWarnings("unchecked")
+    public Window around(String board, String member, int n) {
+        List<Object> reply = stringRedisTemplate.execute(AROUND, Collections.singletonList(board), member, String.valueOf(n));
+        if (reply == null || reply.isEmpty()) {
+            return null;
+        }
+        long rank = Long.parseLong((String) reply.get(0));
+        List<ZSetOperations.TypedTuple<String>> entries = new ArrayList<>();
+        for (int i = 1; i + 1 < reply.size(); i += 2) {
+            entries.add(new DefaultTypedTuple<>((String) reply.get(i), Double.valueOf((String) reply.get(i + 1))));
+        }
+        return new Window(rank, Math.max(0, rank - n), entries);
+    }
+
+    /**
+     * Command `ZUNIONSTORE`
+     * Rebuilds {@code board:window} from the last {@code window-buckets} buckets
+     *
+     * @param board board
+     * @return size of the window board
+     */
+    public Long mergeWindow(String board) {
+        List<String> buckets = windowBucketKeys(board);
+        return stringRedisTemplate.opsForZSet().unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), windowKey(board));
+    }
+
+    /**
+     * Keys of the buckets in the current window, the current bucket first
+     */
+    public List<String> windowBucketKeys(String board) {
+        long current = System.currentTimeMillis() / bucketMs;
+        List<String> buckets = new ArrayList<>(windowBuckets);
+        for (int i = 0; i < windowBuckets; i++) {
+            buckets.add(bucketKey(board, current - i));
+        }
+        return buckets;
+    }
+
+    public String windowKey(String board) {
+        return board + ":window";
+    }
+
+    private void mergeAndRefresh() {
+        topCaches.forEach((board, cache) -> {
+            try {
+                mergeWindow(board);
+                // Picks up updates made by other instances
+                long epoch = cache.epoch();
+                cache.load(epoch, fetchTop(board, topCacheSize));
+            } catch (RuntimeException e) {
+                log.warn("Leaderboard merge failed [board:{}]", board, e);
+            }
+        });
+    }
+
+    private List<ZSetOperations.TypedTuple<String>> fetchTop(String board, int n) {
+        Set<ZSetOperations.TypedTuple<String>> entries = stringRedisTemplate.opsForZSet().reverseRangeWithScores(board, 0, n - 1);
+        return entries == null ? Collections.emptyList() : new ArrayList<>(entries);
+    }
+
+    private TopCache topCache(String board) {
+        return topCaches.computeIfAbsent(board, b -> new TopCache(topCacheSize));
+    }
+
+    private String bucketKey(String board, long bucket) {
+        return board + ":bucket:" + bucket;
+    }
+
+    /**
+     * Entries around a member, best first; {@code firstRank} is the rank of the first entry
+     */
+    public static class Window {
+        private final long rank;
+        private final long firstRank;
+        private final List<ZSetOperations.TypedTuple<String>> entries;
+
+        public Window(long rank, long firstRank, List<ZSetOperations.TypedTuple<String>> entries) {
+            this.rank = rank;
+            this.firstRank = firstRank;
+            this.entries = entries;
+        }
+
+        public long getRank() {
+            return rank;
+        }
+
+        public long getFirstRank() {
+            return firstRank;
+        }
+
+        public List<ZSetOperations.TypedTuple<String>> getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * Local copy of a board's best {@code capacity} entries, best first.
+     * Every decrease bumps the epoch and invalidates the copy; loads and increments started in an older
+     * epoch may carry scores from before the decrease and are not applied.
+     */
+    private static final class TopCache {
+        private final int capacity;
+        private final List<ZSetOperations.TypedTuple<String>> entries = new ArrayList<>();
+        private boolean loaded;
+        private long epoch;
+
+        private TopCache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized long epoch() {
+            return epoch;
+        }
+
+        private synchronized List<ZSetOperations.TypedTuple<String>> top(int n) {
+            return loaded ? new ArrayList<>(entries.subList(0, Math.min(n, entries.size()))) : null;
+        }
+
+        private synchronized void load(long startEpoch, List<ZSetOperations.TypedTuple<String>> top) {
+            if (startEpoch != epoch) {
+                return;
+            }
+            entries.clear();
+            entries.addAll(top);
+            loaded = true;
+        }
+
+        private synchronized void update(long startEpoch, String member, Double score, boolean decreased) {
+            if (decreased || startEpoch != epoch) {
+                // A decrease can move a cached member below members outside the copy, and an older increment
+                // may be applied after it; neither can be patched reliably
+                if (decreased) {
+                    epoch++;
+                }
+                loaded = false;
+                return;
+            }
+            if (!loaded || score == null) {
+                return;
+            }
+            boolean full = entries.size() >= capacity;
+            double lowest = entries.isEmpty() ? Double.NEGATIVE_INFINITY : entries.get(entries.size() - 1).getScore();
+            for (Iterator<ZSetOperations.TypedTuple<String>> it = entries.iterator(); it.hasNext(); ) {
+                ZSetOperations.TypedTuple<String> entry = it.next();
+                if (member.equals(entry.getValue())) {
+                    if (entry.getScore() >= score) {
+                        // Result of an increment that was overtaken by a later one
+                        return;
+                    }
+                    it.remove();
+                    break;
+                }
+            }
+            if (full && score < lowest) {
+                return;
+            }
+            int index = 0;
+            while (index < entries.size() && entries.get(index).getScore() >= score) {
+                index++;
+            }
+            entries.add(index, new DefaultTypedTuple<>(member, score));
+            if (entries.size() > capacity) {
+                entries.remove(entries.size() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.redis.demo.service;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A lease returned by {@link LeaseLockService#tryAcquire}.
+ * Pass {@link #getToken()} along with every write to the protected resource; tokens only grow, so the
+ * resource can reject a write carrying a token lower than one it has already seen.
+ */
+public class Lease implements AutoCloseable {
+
+    private final LeaseLockService service;
+
+    private final String name;
+
+    private final String owner;
+
+    private final long token;
+
+    private final ReentrantLock local;
+
+    private volatile boolean lost;
+
+    private volatile ScheduledFuture<?> renewal;
+
+    Lease(LeaseLockService service, String name, String owner, long token, ReentrantLock local) {
+        this.service = service;
+        this.name = name;
+        this.owner = owner;
+        this.token = token;
+        this.local = local;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    /**
+     * False once the watchdog found the lease expired or taken over in Redis
+     */
+    public boolean isValid() {
+        return !lost;
+    }
+
+    /**
+     * Release one hold; the lease is given back in Redis when the outermost hold is released
+     */
+    @Override
+    public void close() {
+        service.close(this);
+    }
+
+    String getOwner() {
+        return owner;
+    }
+
+    ReentrantLock getLocal() {
+        return local;
+    }
+
+    void markLost() {
+        lost = true;
+    }
+
+    void setRenewal(ScheduledFuture<?> renewal) {
+        this.renewal = renewal;
+        if (lost) {
+            // The first renewal ran and lost the lease before the future was stored
+            renewal.cancel(false);
+        }
+    }
+
+    /**
+     * Stop the watchdog for this lease; a no-op when it has none
+     */
+    void cancelRenewal() {
+        ScheduledFuture<?> renewal = this.renewal;
+        if (renewal != null) {
+            renewal.cancel(false);
+        }
+    }
+}
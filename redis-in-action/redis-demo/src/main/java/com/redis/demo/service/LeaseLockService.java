@@ -0,0 +1,210 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Leases on Redis keys: SET NX PX to acquire, a Lua compare-and-delete to release, and a watchdog that
+ * extends every held lease at a third of its lease time. Each acquisition gets a fencing token from a
+ * per-lock counter, so a resource can reject writes from a holder whose lease has already expired.
+ * Threads of the same JVM first queue on a local {@link ReentrantLock}; only its holder talks to Redis,
+ * and re-acquiring from the holding thread never leaves the process.
+ */
+@Slf4j
+@Service
+public class LeaseLockService {
+
+    /**
+     * KEYS[1] lock, KEYS[2] fencing counter; ARGV[1] owner, ARGV[2] lease ms.
+     * Returns the fencing token, 0 when the lock is held by someone else.
+     */
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then\n" +
+            "  return redis.call('INCR', KEYS[2])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    /**
+     * KEYS[1] lock; ARGV[1] owner
+     */
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end\n" +
+            "return 0", Long.class);
+
+    /**
+     * KEYS[1] lock; ARGV[1] owner, ARGV[2] lease ms
+     */
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n" +
+            "return 0", Long.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, ReentrantLock> localLocks = new ConcurrentHashMap<>();
+
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+
+    private final LongAdder acquired = new LongAdder();
+
+    private final LongAdder reentered = new LongAdder();
+
+    private final LongAdder redisAttempts = new LongAdder();
+
+    private final LongAdder lost = new LongAdder();
+
+    private ScheduledExecutorService watchdog;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @PostConstruct
+    public void start() {
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lease-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchdog.shutdownNow();
+        held.values().forEach(lease -> release(lease.getName(), lease.getOwner()));
+    }
+
+    /**
+     * Acquire the lease on {@code name}, waiting up to {@code waitTime}.
+     * The lease is renewed until closed and must be closed by the thread that acquired it.
+     *
+     * @param name      name
+     * @param leaseTime time the lease survives without renewal, e.g. after a crash
+     * @param waitTime  waitTime
+     * @return the lease, null when it could not be acquired in time
+     */
+    public Lease tryAcquire(String name, Duration leaseTime, Duration waitTime) throws InterruptedException {
+        long deadline = System.nanoTime() + waitTime.toNanos();
+        ReentrantLock local = localLocks.computeIfAbsent(name, n -> new ReentrantLock());
+        if (!local.tryLock(waitTime.toNanos(), TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+        if (local.getHoldCount() > 1) {
+            reentered.increment();
+            return held.get(name);
+        }
+        try {
+            String owner = instanceId + ":" + sequence.incrementAndGet();
+            long backoffMs = 1;
+            while (true) {
+                redisAttempts.increment();
+                Long token = stringRedisTemplate.execute(ACQUIRE, Arrays.asList(lockKey(name), fenceKey(name)),
+                        owner, String.valueOf(leaseTime.toMillis()));
+                if (token != null && token > 0) {
+                    Lease lease = new Lease(this, name, owner, token, local);
+                    long period = Math.max(1, leaseTime.toMillis() / 3);
+                    lease.setRenewal(watchdog.scheduleAtFixedRate(() -> renew(lease, leaseTime), period, period, TimeUnit.MILLISECONDS));
+                    held.put(name, lease);
+                    acquired.increment();
+                    return lease;
+                }
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    local.unlock();
+                    return null;
+                }
+                TimeUnit.MILLISECONDS.sleep(Math.min(remainingMs, ThreadLocalRandom.current().nextLong(backoffMs) + 1));
+                backoffMs = Math.min(backoffMs * 2, 50);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            local.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Called by {@link Lease#close()} from the holding thread
+     */
+    void close(Lease lease) {
+        ReentrantLock local = lease.getLocal();
+        try {
+            if (local.getHoldCount() == 1) {
+                lease.cancelRenewal();
+                held.remove(lease.getName(), lease);
+                release(lease.getName(), lease.getOwner());
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * Acquisitions served by the local lock of a thread already holding the lease
+     */
+    public long getReentered() {
+        return reentered.sum();
+    }
+
+    public long getRedisAttempts() {
+        return redisAttempts.sum();
+    }
+
+    /**
+     * Leases that expired in Redis before they were closed
+     */
+    public long getLost() {
+        return lost.sum();
+    }
+
+    private void renew(Lease lease, Duration leaseTime) {
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW, Collections.singletonList(lockKey(lease.getName())),
+                    lease.getOwner(), String.valueOf(leaseTime.toMillis()));
+            if (renewed == null || renewed == 0) {
+                lease.markLost();
+                lost.increment();
+                lease.cancelRenewal();
+                log.warn("Lease lost [name:{} token:{}]", lease.getName(), lease.getToken());
+            }
+        } catch (RuntimeException e) {
+            // The next run retries; the lease survives until its lease time runs out
+            log.warn("Lease renewal failed [name:{}]", lease.getName(), e);
+        }
+    }
+
+    private void release(String name, String owner) {
+        stringRedisTemplate.execute(RELEASE, Collections.singletonList(lockKey(name)), owner);
+    }
+
+    private String lockKey(String name) {
+        return "lock:{" + name + "}";
+    }
+
+    private String fenceKey(String name) {
+        return "lock:{" + name + "}:fence";
+    }
+}
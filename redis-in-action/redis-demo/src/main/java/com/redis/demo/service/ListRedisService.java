@@ -1,16 +1,50 @@
 package com.redis.demo.service;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 public class ListRedisService {
 
     public static final String KEY = "Redis-Demo-List-Key";
 
+    /**
+     * LPOP with count for servers older than 6.2: KEYS[1] list, ARGV[1] count
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LPOP_BATCH = new DefaultRedisScript<>(
+            "local items = redis.call('LRANGE', KEYS[1], 0, ARGV[1] - 1)\n" +
+            "redis.call('LTRIM', KEYS[1], ARGV[1], -1)\n" +
+            "return items", List.class);
+
+    /**
+     * RPOP with count for servers older than 6.2, items are returned rightmost first: KEYS[1] list, ARGV[1] count
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RPOP_BATCH = new DefaultRedisScript<>(
+            "local items = redis.call('LRANGE', KEYS[1], -ARGV[1], -1)\n" +
+            "redis.call('LTRIM', KEYS[1], 0, -ARGV[1] - 1)\n" +
+            "local popped = {}\n" +
+            "for i = #items, 1, -1 do popped[#popped + 1] = items[i] end\n" +
+            "return popped", List.class);
+
+    /**
+     * Cleared the first time the server rejects LPOP/RPOP with a count
+     */
+    private volatile boolean popCountSupported = true;
+
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -18,114 +52,374 @@ public class ListRedisService {
      * Command `RPUSH`
      * RPUSHkey-namevalue[value...]—Pushes the value(s) onto the right end of the list
      *
+     * @param key    key
      * @param values values
      * @return Long
      */
+    public Long rPush(String key, String[] values) {
+        return redisTemplate.opsForList().rightPushAll(key, values);
+    }
+
+    /**
+     * {@link #rPush(String, String[])} on {@link #KEY}
+     */
     public Long rPush(String[] values) {
-        return redisTemplate.opsForList().rightPushAll(KEY, values);
+        return rPush(KEY, values);
     }
 
     /**
      * Command `LPUSH`
      * LPUSH key-namevalue[value...]—Pushes the value(s) onto the left end of the list
      *
+     * @param key    key
      * @param values values
      * @return Long
      */
+    public Long lPush(String key, String[] values) {
+        return redisTemplate.opsForList().leftPushAll(key, values);
+    }
+
+    /**
+     * {@link #lPush(String, String[])} on {@link #KEY}
+     */
     public Long lPush(String[] values) {
-        return redisTemplate.opsForList().leftPushAll(KEY, values);
+        return lPush(KEY, values);
     }
 
     /**
      * Command `RPOP`
      * RPOP key-name—Removes and returns the rightmost item from the list
      *
+     * @param key key
      * @return Object
      */
+    public Object rPop(String key) {
+        return redisTemplate.opsForList().rightPop(key);
+    }
+
+    /**
+     * {@link #rPop(String)} on {@link #KEY}
+     */
     public Object rPop() {
-        return redisTemplate.opsForList().rightPop(KEY);
+        return rPop(KEY);
     }
 
     /**
      * Command `LPOP`
      * LPOP key-name—Removes and returns the leftmost item from the list
      *
+     * @param key key
      * @return Object
      */
+    public Object lPop(String key) {
+        return redisTemplate.opsForList().leftPop(key);
+    }
+
+    /**
+     * {@link #lPop(String)} on {@link #KEY}
+     */
     public Object lPop() {
-        return redisTemplate.opsForList().leftPop(KEY);
+        return lPop(KEY);
     }
 
     /**
      * Command `LINDEX`
      * LINDEX key-name offset—Returns the item at the given offset
      *
+     * @param key key
      * @return Object
      */
+    public Object lIndex(String key, Long index) {
+        return redisTemplate.opsForList().index(key, index);
+    }
+
+    /**
+     * {@link #lIndex(String, Long)} on {@link #KEY}
+     */
     public Object lIndex(Long index) {
-        return redisTemplate.opsForList().index(KEY, index);
+        return lIndex(KEY, index);
     }
 
     /**
      * Command `LRANGE`
      * LRANGE key-namestartend—Returns the items in the list at the offsets from start to end, inclusive
      *
+     * @param key key
      * @return Object
      */
+    public Object lRange(String key, long start, long end) {
+        return redisTemplate.opsForList().range(key, start, end);
+    }
+
+    /**
+     * {@link #lRange(String, long, long)} on {@link #KEY}
+     */
     public Object lRange(long start, long end) {
-        return redisTemplate.opsForList().range(KEY, start, end);
+        return lRange(KEY, start, end);
     }
 
     /**
      * Command `LTRIM`
      * LTRIM key-namestartend—Trims the list to only include items at indices between start and end, inclusive
      *
+     * @param key   key
      * @param start start
      * @param end   end
      */
+    public void lTrim(String key, long start, long end) {
+        redisTemplate.opsForList().trim(key, start, end);
+    }
+
+    /**
+     * {@link #lTrim(String, long, long)} on {@link #KEY}
+     */
     public void lTrim(long start, long end) {
-        redisTemplate.opsForList().trim(KEY, start, end);
+        lTrim(KEY, start, end);
     }
 
     /**
      * Command `BLPOP`
      * BLPOP key-name [key-name ...] timeout—Pops the leftmost item from the first non-empty LIST, or waits the timeout in seconds for an item
      *
+     * @param key     key
      * @param seconds seconds
      * @return Object
      */
+    public Object blPop(String key, long seconds) {
+        return redisTemplate.opsForList().leftPop(key, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * {@link #blPop(String, long)} on {@link #KEY}
+     */
     public Object blPop(long seconds) {
-        return redisTemplate.opsForList().leftPop(KEY, seconds, TimeUnit.SECONDS);
+        return blPop(KEY, seconds);
     }
 
     /**
      * Command `BRPOP`
      * BRPOP key-name [key-name ...] timeout—Pops the rightmost item from the first non-empty LIST, or waits the timeout in seconds for an item
      *
+     * @param key     key
      * @param seconds seconds
      * @return Object
      */
+    public Object bRPop(String key, long seconds) {
+        return redisTemplate.opsForList().rightPop(key, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * {@link #bRPop(String, long)} on {@link #KEY}
+     */
     public Object bRPop(long seconds) {
-        return redisTemplate.opsForList().rightPop(KEY, seconds, TimeUnit.SECONDS);
+        return bRPop(KEY, seconds);
     }
 
     /**
      * Command `POPLPUSH`
      * RPOPLPUSH source-key dest-key—Pops the rightmost item from the source and LPUSHes the item to the destination, also returning the item to the user
      *
+     * @param source      source
+     * @param destination destination
      * @return Object
      */
+    public Object rPopLPush(String source, String destination) {
+        return redisTemplate.opsForList().rightPopAndLeftPush(source, destination);
+    }
+
+    /**
+     * {@link #rPopLPush(String, String)} on {@link #KEY}
+     */
     public Object rPopLPush() {
-        return redisTemplate.opsForList().rightPopAndLeftPush(KEY, "list-key");
+        return rPopLPush(KEY, "list-key");
     }
 
     /**
      * Command `BRPOPLPUSH`
-     * RPOPLPUSH source-key dest-key—Pops the rightmost item from the source and LPUSHes the item to the destination, also returning the item to the user
+     * BRPOPLPUSH source-key dest-key timeout—Pops the rightmost item from the source and LPUSHes the item to the destination, also returning the item to the user, and waits up to the timeout if the item isn’t available
      *
-     * @return
+     * @param source      source
+     * @param destination destination
+     * @param seconds     seconds
+     * @return Object
+     */
+    public Object bRPopLPush(String source, String destination, long seconds) {
+        return redisTemplate.opsForList().rightPopAndLeftPush(source, destination, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * {@link #bRPopLPush(String, String, long)} on {@link #KEY}
+     */
+    public Object bRPopLPush(long seconds) {
+        return bRPopLPush(KEY, "list-key", seconds);
+    }
+
+    /**
+     * Command `LPOP` with count
+     * LPOP key-name count—Removes and returns up to count items from the left end of the list in one round trip
+     *
+     * @param key key
+     * @param n   n
+     * @return the popped items, empty when the list is empty or n <= 0
+     */
+    public List<Object> lPopBatch(String key, int n) {
+        return popBatch(key, n, true);
+    }
+
+    /**
+     * {@link #lPopBatch(String, int)} on {@link #KEY}
+     */
+    public List<Object> lPopBatch(int n) {
+        return lPopBatch(KEY, n);
+    }
+
+    /**
+     * Command `RPOP` with count
+     * RPOP key-name count—Removes and returns up to count items from the right end of the list in one round trip
+     *
+     * @param key key
+     * @param n   n
+     * @return the popped items, rightmost first, empty when the list is empty or n <= 0
+     */
+    public List<Object> rPopBatch(String key, int n) {
+        return popBatch(key, n, false);
+    }
+
+    /**
+     * {@link #rPopBatch(String, int)} on {@link #KEY}
+     */
+    public List<Object> rPopBatch(int n) {
+        return rPopBatch(KEY, n);
+    }
+
+    /**
+     * Drains the list from the left in batches of up to {@code batchSize} items.
+     * A new batch is only popped when the subscriber requests more, and the flux completes once the list is empty.
+     *
+     * @param key       key
+     * @param batchSize batchSize
+     * @return Flux
+     */
+    public Flux<List<Object>> drainBatches(String key, int batchSize) {
+        return Flux.<List<Object>>generate(sink -> {
+            List<Object> batch = lPopBatch(key, batchSize);
+            if (batch.isEmpty()) {
+                sink.complete();
+            } else {
+                sink.next(batch);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * {@link #drainBatches(String, int)} on {@link #KEY}
+     */
+    public Flux<List<Object>> drainBatches(int batchSize) {
+        return drainBatches(KEY, batchSize);
+    }
+
+    /**
+     * Item by item view of {@link #drainBatches(int)}
+     *
+     * @param key       key
+     * @param batchSize batchSize
+     * @return Flux
+     */
+    public Flux<Object> drain(String key, int batchSize) {
+        return drainBatches(key, batchSize).flatMapIterable(batch -> batch, 1);
+    }
+
+    /**
+     * {@link #drain(String, int)} on {@link #KEY}
+     */
+    public Flux<Object> drain(int batchSize) {
+        return drain(KEY, batchSize);
+    }
+
+    /**
+     * Command `RPUSH` onto one sub-list of a sharded list, chosen round-robin
+     *
+     * @param key    key
+     * @param values values
+     * @return length of the sub-list
+     */
+    public Long rPush(ShardedKey key, String[] values) {
+        return rPush(key.next(), values);
+    }
+
+    /**
+     * Command `LPOP` over the sub-lists of a sharded list, starting at the next one in round-robin order
+     * and moving on while they are empty. Ordering is only kept within a sub-list.
+     *
+     * @param key key
+     * @return Object, null when every sub-list is empty
+     */
+    public Object lPop(ShardedKey key) {
+        List<String> shards = key.getShards();
+        int start = key.nextIndex();
+        for (int i = 0; i < shards.size(); i++) {
+            Object item = lPop(shards.get((start + i) % shards.size()));
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Command `LLEN` summed over every sub-list of a sharded list
+     *
+     * @param key key
+     * @return long
+     */
+    public long lLen(ShardedKey key) {
+        long size = 0;
+        for (String shard : key.getShards()) {
+            Long length = redisTemplate.opsForList().size(shard);
+            size += length == null ? 0 : length;
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> popBatch(String key, int n, boolean left) {
+        if (n <= 0) {
+            // LRANGE/LTRIM with n - 1 = -1 would return the whole list without removing anything
+            return Collections.emptyList();
+        }
+        if (popCountSupported) {
+            try {
+                List<Object> items = left
+                        ? redisTemplate.opsForList().leftPop(key, n)
+                        : redisTemplate.opsForList().rightPop(key, n);
+                return items == null ? Collections.emptyList() : items;
+            } catch (RedisSystemException e) {
+                if (!isCountRejected(e)) {
+                    // WRONGTYPE, timeouts, dropped connections: not a reason to give up on COUNT for good
+                    throw e;
+                }
+                log.info("LPOP/RPOP with count not supported, falling back to LRANGE+LTRIM script", e);
+                popCountSupported = false;
+            }
+        }
+        List<Object> items = redisTemplate.execute(left ? LPOP_BATCH : RPOP_BATCH, Collections.singletonList(key), String.valueOf(n));
+        return items == null ? Collections.emptyList() : items;
+    }
+
+    boolean isPopCountSupported() {
+        return popCountSupported;
+    }
+
+    /**
+     * Whether the error is a server older than 6.2 rejecting the count argument
      */
-    public Object bRPopLPush() {
-        return redisTemplate.opsForList().rightPopAndLeftPush(KEY, "list-key");
+    private static boolean isCountRejected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && (message.contains("wrong number of arguments") || message.contains("ERR syntax"))) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -1,13 +1,55 @@
 package com.redis.demo.service;
 
+import com.redis.demo.dispatch.MessageDispatcher;
+import com.redis.demo.dispatch.OverflowPolicy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+
 @Slf4j
 @Component
 public class MessageReceive {
 
+    @Value("${redis-demo.dispatcher.capacity:8192}")
+    private int capacity;
+
+    @Value("${redis-demo.dispatcher.workers:2}")
+    private int workers;
+
+    @Value("${redis-demo.dispatcher.batch-size:64}")
+    private int batchSize;
+
+    @Value("${redis-demo.dispatcher.overflow:BLOCK}")
+    private OverflowPolicy overflow;
+
+    private MessageDispatcher<String> dispatcher;
+
+    @PostConstruct
+    public void start() {
+        dispatcher = new MessageDispatcher<>("message-receive", capacity, workers, batchSize, overflow, this::handle);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        dispatcher.close();
+    }
+
+    /**
+     * Listener method, only hands the message over so the listener thread is free for the next one
+     */
     public void getMessage(String object) {
-        log.info(object);
+        dispatcher.publish(object);
+    }
+
+    public MessageDispatcher<String> getDispatcher() {
+        return dispatcher;
+    }
+
+    private void handle(List<String> messages) {
+        log.info("Received {} message(s):{}", messages.size(), messages);
     }
 }
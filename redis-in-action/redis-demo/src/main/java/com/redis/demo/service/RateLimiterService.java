@@ -0,0 +1,248 @@
+package com.redis.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window rate limiter, one sorted set of admission timestamps per key.
+ * A Redis call reserves up to {@code local-batch} admissions at once and the surplus is kept in a local
+ * token bucket, so most allowed requests are decided in-process.
+ * <p>
+ * A local token may be spent up to {@code local-ttl-ms} after it was reserved, so reservations are scored
+ * with the end of that hold rather than the reservation time. Every admission therefore stays in the Redis
+ * window for at least {@code window} after it was actually used and the limit is not exceeded across
+ * instances; the price is that reserved admissions, used or not, block capacity for up to
+ * {@code window + local-ttl-ms}. Only one Redis call per key and instance is in flight at a time, and
+ * concurrent callers wait for its result instead of queueing on a lock held across the round trip.
+ */
+@Service
+public class RateLimiterService {
+
+    /**
+     * KEYS[1] window; ARGV[1] now ms, ARGV[2] window ms, ARGV[3] limit, ARGV[4] requested, ARGV[5] member prefix,
+     * ARGV[6] hold ms. Returns the number of admissions granted, 0 when the window is full.
+     */
+    private static final RedisScript<Long> RESERVE = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[1])\n" +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - tonumber(ARGV[2]))\n" +
+            "local granted = math.min(tonumber(ARGV[4]), tonumber(ARGV[3]) - redis.call('ZCARD', KEYS[1]))\n" +
+            "if granted <= 0 then return 0 end\n" +
+            "local score = now + tonumber(ARGV[6])\n" +
+            "for i = 1, granted do redis.call('ZADD', KEYS[1], score, ARGV[5] .. i) end\n" +
+            "redis.call('PEXPIRE', KEYS[1], tonumber(ARGV[2]) + tonumber(ARGV[6]))\n" +
+            "return granted", Long.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder localDecisions = new LongAdder();
+
+    private final LongAdder redisDecisions = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${redis-demo.rate-limiter.local-batch:10}")
+    private int localBatch;
+
+    @Value("${redis-demo.rate-limiter.local-ttl-ms:100}")
+    private long localTtlMs;
+
+    @Value("${redis-demo.rate-limiter.sweep-ms:1000}")
+    private long sweepMs;
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * {@link #tryAcquire(String, int, Duration, int)} with the configured local batch
+     */
+    public boolean tryAcquire(String key, int limit, Duration window) {
+        return tryAcquire(key, limit, window, localBatch);
+    }
+
+    /**
+     * Admit one request if fewer than {@code limit} were admitted for the key during the last {@code window}
+     *
+     * @param key        key
+     * @param limit      limit
+     * @param window     window
+     * @param localBatch admissions reserved per Redis call, 1 disables the local bucket
+     * @return true when the request is admitted
+     */
+    public boolean tryAcquire(String key, int limit, Duration window, int localBatch) {
+        long holdNanos = Math.min(window.toNanos(), Duration.ofMillis(localTtlMs).toNanos());
+        while (true) {
+            LocalBucket bucket = buckets.computeIfAbsent(key, k -> new LocalBucket());
+            CompletableFuture<Long> refill;
+            boolean owner = false;
+            synchronized (bucket) {
+                if (bucket.retired) {
+                    // Swept between the lookup and the lock
+                    continue;
+                }
+                if (bucket.take()) {
+                    localDecisions.increment();
+                    return true;
+                }
+                if (bucket.refill == null) {
+                    bucket.refill = new CompletableFuture<>();
+                    owner = true;
+                }
+                refill = bucket.refill;
+            }
+            if (owner) {
+                return refill(bucket, refill, key, limit, window, localBatch, holdNanos);
+            }
+            long granted;
+            try {
+                granted = refill.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            if (granted == 0) {
+                rejected.increment();
+                return false;
+            }
+            synchronized (bucket) {
+                if (bucket.take()) {
+                    localDecisions.increment();
+                    return true;
+                }
+            }
+            // Others drained the refill first, reserve again
+        }
+    }
+
+    /**
+     * Reserve a batch outside the bucket lock; the caller keeps one admission, the rest goes to the bucket
+     */
+    private boolean refill(LocalBucket bucket, CompletableFuture<Long> refill, String key, int limit, Duration window,
+                           int localBatch, long holdNanos) {
+        long granted;
+        try {
+            granted = reserve(key, limit, window, localBatch, TimeUnit.NANOSECONDS.toMillis(holdNanos));
+        } catch (RuntimeException e) {
+            synchronized (bucket) {
+                bucket.refill = null;
+            }
+            refill.completeExceptionally(e);
+            throw e;
+        }
+        redisDecisions.increment();
+        synchronized (bucket) {
+            bucket.tokens = Math.max(0, granted - 1);
+            bucket.expiresAt = System.nanoTime() + holdNanos;
+            bucket.refill = null;
+        }
+        refill.complete(granted);
+        if (granted == 0) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drop buckets whose tokens expired, so keys that are no longer used do not stay in the map
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        buckets.forEach((key, bucket) -> {
+            synchronized (bucket) {
+                if (bucket.refill == null && now - bucket.expiresAt >= 0) {
+                    bucket.retired = true;
+                    buckets.remove(key, bucket);
+                }
+            }
+        });
+    }
+
+    /**
+     * Command `ZREMRANGEBYSCORE` + `ZCARD` + `ZADD` in one script
+     *
+     * @return admissions granted
+     */
+    private long reserve(String key, int limit, Duration window, int count, long holdMs) {
+        String prefix = instanceId + ":" + sequence.incrementAndGet() + ":";
+        Long granted = stringRedisTemplate.execute(RESERVE, Collections.singletonList(windowKey(key)),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(window.toMillis()), String.valueOf(limit),
+                String.valueOf(Math.min(count, limit)), prefix, String.valueOf(holdMs));
+        return granted == null ? 0 : granted;
+    }
+
+    public String windowKey(String key) {
+        return "rate-limit:" + key;
+    }
+
+    /**
+     * Requests admitted from the local bucket without a Redis call
+     */
+    public long getLocalDecisions() {
+        return localDecisions.sum();
+    }
+
+    public long getRedisDecisions() {
+        return redisDecisions.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Admissions already reserved in Redis but not handed out yet; they are dropped after {@code local-ttl-ms}
+     */
+    private static final class LocalBucket {
+        private long tokens;
+        private long expiresAt = System.nanoTime();
+        private CompletableFuture<Long> refill;
+        private boolean retired;
+
+        private boolean take() {
+            if (tokens > 0 && System.nanoTime() - expiresAt < 0) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Pool of consumers started by {@link ReliableQueueService#startConsumers}.
+ * Consumers run on virtual threads when the JVM provides them (Java 21+) and on platform threads otherwise.
+ */
+@Slf4j
+public class ReliableQueueConsumer implements AutoCloseable {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ReliableQueueService queueService;
+
+    private final String queue;
+
+    private final Duration visibilityTimeout;
+
+    private final Consumer<String> handler;
+
+    private final ExecutorService workers;
+
+    private final ScheduledExecutorService reaper;
+
+    private final LongAdder processed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running = true;
+
+    ReliableQueueConsumer(ReliableQueueService queueService, String queue, int concurrency, Duration visibilityTimeout, Consumer<String> handler) {
+        this.queueService = queueService;
+        this.queue = queue;
+        this.visibilityTimeout = visibilityTimeout;
+        this.handler = handler;
+        this.workers = newWorkerExecutor(concurrency);
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "queue-reaper-" + queue);
+            thread.setDaemon(true);
+            return thread;
+        });
+        String prefix = ManagementFactory.getRuntimeMXBean().getName() + "-";
+        for (int i = 0; i < concurrency; i++) {
+            String consumer = prefix + i;
+            queueService.register(queue, consumer);
+            workers.execute(() -> consume(consumer));
+        }
+        long period = Math.max(1, visibilityTimeout.toMillis() / 2);
+        reaper.scheduleWithFixedDelay(this::reap, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        reaper.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(POLL_TIMEOUT.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void consume(String consumer) {
+        while (running) {
+            String item;
+            try {
+                item = queueService.poll(queue, consumer, POLL_TIMEOUT);
+            } catch (RuntimeException e) {
+                if (running) {
+                    log.warn("Poll failed [queue:{} consumer:{}]", queue, consumer, e);
+                }
+                continue;
+            }
+            if (item == null) {
+                continue;
+            }
+            try {
+                handler.accept(item);
+                queueService.ack(queue, consumer, item);
+                processed.increment();
+            } catch (RuntimeException e) {
+                // Not acked, the reaper requeues it after the visibility timeout
+                failed.increment();
+                log.warn("Handler failed [queue:{} item:{}]", queue, item, e);
+            }
+        }
+    }
+
+    private void reap() {
+        try {
+            queueService.requeueStalled(queue, visibilityTimeout);
+        } catch (RuntimeException e) {
+            log.warn("Reaper failed [queue:{}]", queue, e);
+        }
+    }
+
+    private static ExecutorService newWorkerExecutor(int concurrency) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+    }
+}
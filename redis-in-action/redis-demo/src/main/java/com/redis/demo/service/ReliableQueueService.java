@@ -0,0 +1,178 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reliable work queue on a Redis list.
+ * Producers LPUSH onto the queue; each consumer moves one item at a time into its own processing list with
+ * BRPOPLPUSH and removes it with LREM once handled. Items left in a processing list longer than the
+ * visibility timeout (crashed or stuck consumer) are pushed back onto the queue by {@link #requeueStalled}.
+ * All keys of a queue share the hash tag {@code {queue}}, so the multi-key commands and scripts work on
+ * Redis Cluster.
+ */
+@Slf4j
+@Service
+public class ReliableQueueService {
+
+    /**
+     * KEYS[1] processing list, KEYS[2] claim times, KEYS[3] queue; ARGV[1] now, ARGV[2] oldest claim still visible.
+     * Items without a claim time (consumer died between the pop and the claim) are stamped now and reaped later.
+     */
+    private static final RedisScript<Long> REQUEUE_STALLED = new DefaultRedisScript<>(
+            "local items = redis.call('LRANGE', KEYS[1], 0, -1)\n" +
+            "local requeued = 0\n" +
+            "for _, item in ipairs(items) do\n" +
+            "  local claimed = redis.call('ZSCORE', KEYS[2], item)\n" +
+            "  if not claimed then\n" +
+            "    redis.call('ZADD', KEYS[2], ARGV[1], item)\n" +
+            "  elseif tonumber(claimed) <= tonumber(ARGV[2]) then\n" +
+            "    if redis.call('LREM', KEYS[1], 1, item) > 0 then\n" +
+            "      redis.call('RPUSH', KEYS[3], item)\n" +
+            "      requeued = requeued + 1\n" +
+            "    end\n" +
+            "    redis.call('ZREM', KEYS[2], item)\n" +
+            "  end\n" +
+            "end\n" +
+            "return requeued", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Command `LPUSH`
+     * Items are popped from the right, so the queue is FIFO
+     *
+     * @param queue queue
+     * @param items items, should be unique (e.g. ids) since ack removes by value
+     * @return queue length
+     */
+    public Long enqueue(String queue, String... items) {
+        return stringRedisTemplate.opsForList().leftPushAll(queueKey(queue), items);
+    }
+
+    /**
+     * Command `BRPOPLPUSH`
+     * Blocks until an item is available, moves it into the consumer's processing list and stamps the claim time
+     *
+     * @param queue    queue
+     * @param consumer consumer id
+     * @param timeout  timeout
+     * @return the claimed item, or null when the timeout expired
+     */
+    public String poll(String queue, String consumer, Duration timeout) {
+        String processing = processingKey(queue, consumer);
+        String item = stringRedisTemplate.opsForList()
+                .rightPopAndLeftPush(queueKey(queue), processing, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (item != null) {
+            stringRedisTemplate.opsForZSet().add(claimsKey(processing), item, System.currentTimeMillis());
+        }
+        return item;
+    }
+
+    /**
+     * Command `LREM`
+     * Acknowledges a handled item by removing it from the consumer's processing list
+     *
+     * @param queue    queue
+     * @param consumer consumer id
+     * @param item     item
+     */
+    public void ack(String queue, String consumer, String item) {
+        String processing = processingKey(queue, consumer);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.lRem(processing, 1, item);
+            stringConnection.zRem(claimsKey(processing), item);
+            return null;
+        });
+    }
+
+    /**
+     * Registers a consumer so the reaper knows about its processing list
+     *
+     * @param queue    queue
+     * @param consumer consumer id
+     */
+    public void register(String queue, String consumer) {
+        stringRedisTemplate.opsForSet().add(consumersKey(queue), consumer);
+    }
+
+    /**
+     * Pushes items claimed longer than the visibility timeout ago back onto the queue
+     *
+     * @param queue             queue
+     * @param visibilityTimeout visibilityTimeout
+     * @return number of requeued items
+     */
+    public long requeueStalled(String queue, Duration visibilityTimeout) {
+        Set<String> consumers = stringRedisTemplate.opsForSet().members(consumersKey(queue));
+        if (consumers == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long requeued = 0;
+        for (String consumer : consumers) {
+            String processing = processingKey(queue, consumer);
+            Long count = stringRedisTemplate.execute(REQUEUE_STALLED,
+                    Arrays.asList(processing, claimsKey(processing), queueKey(queue)),
+                    String.valueOf(now), String.valueOf(now - visibilityTimeout.toMillis()));
+            requeued += count == null ? 0 : count;
+        }
+        if (requeued > 0) {
+            log.info("Requeued stalled items [queue:{} count:{}]", queue, requeued);
+        }
+        return requeued;
+    }
+
+    /**
+     * Command `LLEN`
+     */
+    public Long size(String queue) {
+        return stringRedisTemplate.opsForList().size(queueKey(queue));
+    }
+
+    /**
+     * Starts a pool of consumers, each with its own processing list, and a reaper for stalled items
+     *
+     * @param queue             queue
+     * @param concurrency       number of consumers
+     * @param visibilityTimeout how long an item may stay claimed before it is requeued
+     * @param handler           handler, an exception leaves the item for the reaper
+     * @return the running consumer pool, close it to stop
+     */
+    public ReliableQueueConsumer startConsumers(String queue, int concurrency, Duration visibilityTimeout, Consumer<String> handler) {
+        return new ReliableQueueConsumer(this, queue, concurrency, visibilityTimeout, handler);
+    }
+
+    /**
+     * The queue list, hash-tagged so every key derived from it lands in the same cluster slot
+     */
+    public String queueKey(String queue) {
+        return "{" + queue + "}";
+    }
+
+    public String processingKey(String queue, String consumer) {
+        return queueKey(queue) + ":processing:" + consumer;
+    }
+
+    private String claimsKey(String processing) {
+        return processing + ":claims";
+    }
+
+    private String consumersKey(String queue) {
+        return queueKey(queue) + ":consumers";
+    }
+}
@@ -0,0 +1,115 @@
+package com.redis.demo.service;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Set algebra that stays on the server: results are written to a destination key with a TTL instead of
+ * being returned, and members are read back incrementally with SSCAN instead of SMEMBERS.
+ */
+@Service
+public class SetRedisService {
+
+    /**
+     * KEYS[1] destination, KEYS[2..] sources; ARGV[1] SDIFFSTORE/SINTERSTORE/SUNIONSTORE, ARGV[2] ttl ms.
+     * Runs the command and sets the TTL atomically, returns the size of the destination.
+     */
+    private static final RedisScript<Long> STORE = new DefaultRedisScript<>(
+            "local size = redis.call(ARGV[1], unpack(KEYS))\n" +
+            "if size > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n" +
+            "return size", Long.class);
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * Command `SDIFFSTORE`
+     * SDIFFSTORE dest-key key-name [key-name ...]—Stores the members of the first set that are not in the others
+     *
+     * @param destination destination
+     * @param ttl         ttl of the destination
+     * @param key         key
+     * @param otherKeys   otherKeys
+     * @return size of the destination
+     */
+    public Long diffStore(String destination, Duration ttl, String key, String... otherKeys) {
+        return store("SDIFFSTORE", destination, ttl, key, otherKeys);
+    }
+
+    /**
+     * Command `SINTERSTORE`
+     * SINTERSTORE dest-key key-name [key-name ...]—Stores the members present in every set
+     *
+     * @param destination destination
+     * @param ttl         ttl of the destination
+     * @param key         key
+     * @param otherKeys   otherKeys
+     * @return size of the destination
+     */
+    public Long interStore(String destination, Duration ttl, String key, String... otherKeys) {
+        return store("SINTERSTORE", destination, ttl, key, otherKeys);
+    }
+
+    /**
+     * Command `SUNIONSTORE`
+     * SUNIONSTORE dest-key key-name [key-name ...]—Stores the members present in at least one set
+     *
+     * @param destination destination
+     * @param ttl         ttl of the destination
+     * @param key         key
+     * @param otherKeys   otherKeys
+     * @return size of the destination
+     */
+    public Long unionStore(String destination, Duration ttl, String key, String... otherKeys) {
+        return store("SUNIONSTORE", destination, ttl, key, otherKeys);
+    }
+
+    /**
+     * Command `SSCAN`
+     * Members fetched {@code count} at a time; close the stream to release the cursor early
+     *
+     * @param key   key
+     * @param count members per SSCAN call
+     * @return Stream
+     */
+    public Stream<Object> scan(String key, long count) {
+        Cursor<Object> cursor = redisTemplate.opsForSet().scan(key, ScanOptions.scanOptions().count(count).build());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Reactive view of {@link #scan(String, long)}, the cursor is closed on completion or cancel
+     *
+     * @param key   key
+     * @param count members per SSCAN call
+     * @return Flux
+     */
+    public Flux<Object> scanFlux(String key, long count) {
+        return Flux.using(() -> scan(key, count), Flux::fromStream, Stream::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Long store(String command, String destination, Duration ttl, String key, String... otherKeys) {
+        List<String> keys = new ArrayList<>(otherKeys.length + 2);
+        keys.add(destination);
+        keys.add(key);
+        keys.addAll(List.of(otherKeys));
+        return redisTemplate.execute(STORE, keys, command, String.valueOf(ttl.toMillis()));
+    }
+}
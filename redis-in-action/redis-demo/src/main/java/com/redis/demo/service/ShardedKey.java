@@ -0,0 +1,66 @@
+package com.redis.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A logical key spread over N sub-keys so one hot key does not pin all traffic to a single Redis Cluster slot.
+ * Each sub-key carries its own hash tag, e.g. {@code {counter#0}}, {@code {counter#1}}, so the sub-keys land
+ * on different slots. Writes go round-robin over the sub-keys, reads fan in over all of them.
+ */
+public class ShardedKey {
+
+    private final String key;
+
+    private final List<String> shards;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ShardedKey(String key, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + count);
+        }
+        List<String> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add("{" + key + "#" + i + "}");
+        }
+        this.key = key;
+        this.shards = Collections.unmodifiableList(shards);
+    }
+
+    public static ShardedKey of(String key, int count) {
+        return new ShardedKey(key, count);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * All sub-keys, for fan-in reads
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    /**
+     * Index of the next sub-key in round-robin order
+     */
+    public int nextIndex() {
+        return Math.floorMod(next.getAndIncrement(), shards.size());
+    }
+
+    /**
+     * Next sub-key in round-robin order, for writes
+     */
+    public String next() {
+        return shards.get(nextIndex());
+    }
+
+    @Override
+    public String toString() {
+        return key + shards;
+    }
+}
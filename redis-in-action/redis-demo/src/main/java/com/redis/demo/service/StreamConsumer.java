@@ -0,0 +1,145 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StringRecord;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Consumer loop started by {@link StreamRedisService#startConsumer}.
+ * Reads new entries in batches with XREADGROUP, hands each batch to the handler and acknowledges it with one XACK.
+ * Every {@code minIdle} it also claims entries left pending by other consumers of the group.
+ */
+@Slf4j
+public class StreamConsumer implements AutoCloseable {
+
+    private static final Duration BLOCK = Duration.ofSeconds(1);
+
+    private final StreamRedisService streamService;
+
+    private final String stream;
+
+    private final String group;
+
+    private final String consumer;
+
+    private final int batchSize;
+
+    private final Duration minIdle;
+
+    private final Consumer<List<StringRecord>> handler;
+
+    private final Thread thread;
+
+    private final LongAdder processed = new LongAdder();
+
+    private final LongAdder claimed = new LongAdder();
+
+    private final LongAdder received = new LongAdder();
+
+    private final LongAdder latencyTotalMs = new LongAdder();
+
+    private final AtomicLong latencyMaxMs = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    StreamConsumer(StreamRedisService streamService, String stream, String group, String consumer, int batchSize,
+                   Duration minIdle, Consumer<List<StringRecord>> handler) {
+        this.streamService = streamService;
+        this.stream = stream;
+        this.group = group;
+        this.consumer = consumer;
+        this.batchSize = batchSize;
+        this.minIdle = minIdle;
+        this.handler = handler;
+        this.thread = new Thread(this::consume, "stream-" + stream + "-" + consumer);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    /**
+     * Entries taken over from other consumers with XAUTOCLAIM
+     */
+    public long getClaimed() {
+        return claimed.sum();
+    }
+
+    /**
+     * Mean time between XADD and the handler receiving the entry
+     */
+    public double getMeanLatencyMs() {
+        long count = received.sum();
+        return count == 0 ? 0 : (double) latencyTotalMs.sum() / count;
+    }
+
+    public long getMaxLatencyMs() {
+        return latencyMaxMs.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        thread.join(BLOCK.toMillis() * 2);
+    }
+
+    private void consume() {
+        long nextClaim = System.nanoTime() + minIdle.toNanos();
+        while (running) {
+            try {
+                if (System.nanoTime() - nextClaim >= 0) {
+                    List<StringRecord> stale = streamService.autoClaim(stream, group, consumer, minIdle, batchSize);
+                    claimed.add(stale.size());
+                    handle(stale);
+                    nextClaim = System.nanoTime() + minIdle.toNanos();
+                }
+                handle(streamService.read(stream, group, consumer, batchSize, BLOCK));
+            } catch (RuntimeException e) {
+                if (running) {
+                    // Unacknowledged entries stay pending and are claimed again later
+                    log.warn("Stream consumer failed [stream:{} group:{} consumer:{}]", stream, group, consumer, e);
+                    sleepQuietly();
+                }
+            }
+        }
+    }
+
+    private void handle(List<StringRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (StringRecord record : records) {
+            String publishedAt = record.getValue().get(StreamRedisService.PUBLISHED_AT);
+            if (publishedAt != null) {
+                long latency = now - Long.parseLong(publishedAt);
+                latencyTotalMs.add(latency);
+                latencyMaxMs.accumulateAndGet(latency, Math::max);
+                received.increment();
+            }
+        }
+        handler.accept(records);
+        List<RecordId> ids = records.stream().map(StringRecord::getId).collect(Collectors.toList());
+        streamService.ack(stream, group, ids);
+        processed.add(records.size());
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
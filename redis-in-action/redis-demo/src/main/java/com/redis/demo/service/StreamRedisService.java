@@ -0,0 +1,174 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable event log on Redis Streams, next to the fire-and-forget pub/sub channel.
+ * Entries stay in the stream until trimmed, each consumer group tracks its own position, and entries
+ * delivered to a consumer that never acknowledged them can be claimed by another consumer.
+ */
+@Slf4j
+@Service
+public class StreamRedisService {
+
+    /**
+     * Field stamped on every entry by {@link #add}, used to measure end-to-end latency
+     */
+    public static final String PUBLISHED_AT = "publishedAt";
+
+    /**
+     * KEYS[1] stream; ARGV[1] group, ARGV[2] consumer, ARGV[3] min idle ms, ARGV[4] start id, ARGV[5] count.
+     * Run as a script because the client has no XAUTOCLAIM binding; returns the next cursor and the claimed entries.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> AUTO_CLAIM = new DefaultRedisScript<>(
+            "return redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], 'COUNT', ARGV[5])", List.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Command `XADD` with `MAXLEN`
+     * Appends an entry and trims the stream to at most {@code maxLen} entries
+     *
+     * @param stream stream
+     * @param fields fields
+     * @param maxLen maxLen
+     * @return RecordId
+     */
+    public RecordId add(String stream, Map<String, String> fields, long maxLen) {
+        Map<String, String> entry = new LinkedHashMap<>(fields);
+        entry.put(PUBLISHED_AT, String.valueOf(System.currentTimeMillis()));
+        StringRecord record = StreamRecords.string(entry).withStreamKey(stream);
+        return stringRedisTemplate.execute((RedisCallback<RecordId>) connection ->
+                ((StringRedisConnection) connection).xAdd(record, RedisStreamCommands.XAddOptions.maxlen(maxLen)));
+    }
+
+    /**
+     * Command `XGROUP CREATE ... MKSTREAM`
+     * Creates the group at the end of the stream, an existing group is left untouched
+     *
+     * @param stream stream
+     * @param group  group
+     */
+    public void createGroup(String stream, String group) {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    ((StringRedisConnection) connection).xGroupCreate(stream, ReadOffset.latest(), group, true));
+        } catch (RedisSystemException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Command `XREADGROUP`
+     * Reads up to {@code count} entries never delivered to the group, blocking up to {@code block} when there are none
+     *
+     * @param stream   stream
+     * @param group    group
+     * @param consumer consumer
+     * @param count    count
+     * @param block    block
+     * @return List
+     */
+    public List<StringRecord> read(String stream, String group, String consumer, int count, Duration block) {
+        StreamReadOptions options = StreamReadOptions.empty().count(count).block(block);
+        List<StringRecord> records = stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+                ((StringRedisConnection) connection).xReadGroupAsString(Consumer.from(group, consumer), options,
+                        StreamOffset.create(stream, ReadOffset.lastConsumed())));
+        return records == null ? Collections.emptyList() : records;
+    }
+
+    /**
+     * Command `XACK`
+     *
+     * @param stream stream
+     * @param group  group
+     * @param ids    ids
+     * @return number of acknowledged entries
+     */
+    public Long ack(String stream, String group, List<RecordId> ids) {
+        if (ids.isEmpty()) {
+            return 0L;
+        }
+        return stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                ((StringRedisConnection) connection).xAck(stream, group, ids.toArray(new RecordId[0])));
+    }
+
+    /**
+     * Command `XAUTOCLAIM` (Redis 6.2+)
+     * Takes over entries pending in the group for longer than {@code minIdle}, e.g. from a consumer that died
+     *
+     * @param stream   stream
+     * @param group    group
+     * @param consumer consumer taking the entries over
+     * @param minIdle  minIdle
+     * @param count    count
+     * @return the claimed entries, deleted entries are skipped
+     */
+    @SuppressWarnings("unchecked")
+    public List<StringRecord> autoClaim(String stream, String group, String consumer, Duration minIdle, int count) {
+        List<Object> reply = stringRedisTemplate.execute(AUTO_CLAIM, Collections.singletonList(stream),
+                group, consumer, String.valueOf(minIdle.toMillis()), "0-0", String.valueOf(count));
+        if (reply == null || reply.size() < 2) {
+            return Collections.emptyList();
+        }
+        List<StringRecord> records = new ArrayList<>();
+        for (Object entry : (List<Object>) reply.get(1)) {
+            if (!(entry instanceof List) || ((List<Object>) entry).size() < 2 || ((List<Object>) entry).get(1) == null) {
+                continue;
+            }
+            List<Object> idAndFields = (List<Object>) entry;
+            List<Object> fields = (List<Object>) idAndFields.get(1);
+            Map<String, String> map = new HashMap<>();
+            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                map.put((String) fields.get(i), (String) fields.get(i + 1));
+            }
+            records.add(StreamRecords.string(map).withStreamKey(stream).withId(RecordId.of((String) idAndFields.get(0))));
+        }
+        return records;
+    }
+
+    /**
+     * Starts a consumer reading the stream in batches for the group, see {@link StreamConsumer}
+     *
+     * @param stream    stream
+     * @param group     group
+     * @param consumer  consumer name, unique within the group
+     * @param batchSize batchSize
+     * @param minIdle   pending entries idle this long are claimed from other consumers
+     * @param handler   handler, the batch is acknowledged when it returns
+     * @return the running consumer, close it to stop
+     */
+    public StreamConsumer startConsumer(String stream, String group, String consumer, int batchSize, Duration minIdle,
+                                        java.util.function.Consumer<List<StringRecord>> handler) {
+        createGroup(stream, group);
+        return new StreamConsumer(this, stream, group, consumer, batchSize, minIdle, handler);
+    }
+}
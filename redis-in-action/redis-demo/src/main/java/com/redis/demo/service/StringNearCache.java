@@ -0,0 +1,136 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache in front of {@link StringRedisService#get()}.
+ * Entries are evicted least-recently-used once {@code max-size} is reached and expire after {@code ttl-ms}.
+ * Writers publish the changed key on {@link #INVALIDATION_CHANNEL}; every node receives it through
+ * {@link #invalidate(String)}, registered in the listener container.
+ */
+@Slf4j
+@Component
+public class StringNearCache {
+
+    public static final String INVALIDATION_CHANNEL = "Redis-Demo-Near-Cache-Invalidation";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Bumped on every invalidation, a load that started before the bump must not populate the cache
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    @Value("${redis-demo.near-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${redis-demo.near-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${redis-demo.near-cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current generation, to be passed back to {@link #put(String, String, long)} after loading from Redis
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * @return the cached value, or null on a miss or an expired entry
+     */
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Cache a value loaded from Redis, unless an invalidation arrived since the load started
+     *
+     * @param key        key
+     * @param value      value
+     * @param generation generation read before the load
+     */
+    public synchronized void put(String key, String value, long generation) {
+        if (value == null || generation != this.generation.get()) {
+            return;
+        }
+        entries.put(key, new Entry(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+    }
+
+    /**
+     * Listener method for {@link #INVALIDATION_CHANNEL}, also called directly by the writing node
+     *
+     * @param key changed key
+     */
+    public synchronized void invalidate(String key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+        log.debug("Near cache invalidated [key:{}]", key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        private Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.redis.demo.service;
 
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class StringRedisService {
@@ -11,102 +19,332 @@ public class StringRedisService {
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
+    @Resource
+    private StringNearCache nearCache;
+
     /**
      * Command `SET`
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void add(String key, String value) {
+        stringRedisTemplate.opsForValue().set(key, value);
+        invalidate(key);
+    }
+
+    /**
+     * {@link #add(String, String)} on {@link #KEY}
      */
     public void add(String value) {
-        stringRedisTemplate.opsForValue().set(KEY, value);
+        add(KEY, value);
     }
 
     /**
      * Command `GET`
+     * Served from the near cache when it is enabled
+     *
+     * @param key key
+     */
+    public String get(String key) {
+        if (!nearCache.isEnabled()) {
+            return stringRedisTemplate.opsForValue().get(key);
+        }
+        String cached = nearCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = nearCache.generation();
+        String value = stringRedisTemplate.opsForValue().get(key);
+        nearCache.put(key, value, generation);
+        return value;
+    }
+
+    /**
+     * {@link #get(String)} on {@link #KEY}
      */
     public String get() {
-        return stringRedisTemplate.opsForValue().get(KEY);
+        return get(KEY);
     }
 
     /**
      * Command `INCR`
      * INCR key-name—Increments the value stored at the key by 1
+     *
+     * @param key key
+     */
+    public Long incr(String key) {
+        Long result = stringRedisTemplate.opsForValue().increment(key);
+        invalidate(key);
+        return result;
+    }
+
+    /**
+     * {@link #incr(String)} on {@link #KEY}
      */
     public Long incr() {
-        return stringRedisTemplate.opsForValue().increment(KEY);
+        return incr(KEY);
     }
 
     /**
      * Command 'DECR'
      * DECR key-name—Decrements the value stored at the key by 1
+     *
+     * @param key key
+     */
+    public Long decr(String key) {
+        Long result = stringRedisTemplate.opsForValue().decrement(key);
+        invalidate(key);
+        return result;
+    }
+
+    /**
+     * {@link #decr(String)} on {@link #KEY}
      */
     public Long decr() {
-        return stringRedisTemplate.opsForValue().decrement(KEY);
+        return decr(KEY);
     }
 
     /**
      * Command 'INCRBY'
      * INCRBY key-name amount—Increments the value stored at the key by the provided integer value
+     *
+     * @param key key
+     */
+    public Long incrBy(String key, long delta) {
+        Long result = stringRedisTemplate.opsForValue().increment(key, delta);
+        invalidate(key);
+        return result;
+    }
+
+    /**
+     * {@link #incrBy(String, long)} on {@link #KEY}
      */
     public Long incrBy(int delta) {
-        return stringRedisTemplate.opsForValue().increment(KEY, delta);
+        return incrBy(KEY, delta);
     }
 
     /**
      * Command 'DECRBY'
      * DECRBY key-name amount—Decrements the value stored at the key by the provided integer value
+     *
+     * @param key key
+     */
+    public Long decrBy(String key, long delta) {
+        Long result = stringRedisTemplate.opsForValue().decrement(key, delta);
+        invalidate(key);
+        return result;
+    }
+
+    /**
+     * {@link #decrBy(String, long)} on {@link #KEY}
      */
     public Long decrBy(int delta) {
-        return stringRedisTemplate.opsForValue().decrement(KEY, delta);
+        return decrBy(KEY, delta);
     }
 
     /**
      * Command 'INCRBYFLOAT'
      * INCRBYFLOAT key-name amount—Increments the value stored at the key by the provided float value (available in Redis 2.6 and later)
+     *
+     * @param key key
+     */
+    public Double incrByFloat(String key, double delta) {
+        Double result = stringRedisTemplate.opsForValue().increment(key, delta);
+        invalidate(key);
+        return result;
+    }
+
+    /**
+     * {@link #incrByFloat(String, double)} on {@link #KEY}
      */
     public Double incrByFloat(double delta) {
-        return stringRedisTemplate.opsForValue().increment(KEY, delta);
+        return incrByFloat(KEY, delta);
     }
 
     /**
      * Command 'APPEND'
      * APPEND key-name value—Concatenates the provided value to the string already stored at the given key
      *
+     * @param key   key
      * @param value value
      */
+    public void append(String key, String value) {
+        stringRedisTemplate.opsForValue().append(key, value);
+        invalidate(key);
+    }
+
+    /**
+     * {@link #append(String, String)} on {@link #KEY}
+     */
     public void append(String value) {
-        stringRedisTemplate.opsForValue().append(KEY, value);
+        append(KEY, value);
     }
 
     /**
      * Command 'GETRANGE'
      * GETRANGE key-name start end—Fetches the substring, including all charac- ters from the start offset to the end offset, inclusive
      *
+     * @param key   key
      * @param start start
      * @param end   end
      * @return string
      */
+    public String getRange(String key, long start, long end) {
+        return stringRedisTemplate.opsForValue().get(key, start, end);
+    }
+
+    /**
+     * {@link #getRange(String, long, long)} on {@link #KEY}
+     */
     public String getRange(long start, long end) {
-        return stringRedisTemplate.opsForValue().get(KEY, start, end);
+        return getRange(KEY, start, end);
     }
 
     /**
      * Command 'GETBIT'
      * GETBIT key-name offset—Treats the byte string as a bit string, and returns the value of the bit in the string at the provided bit offset
      *
+     * @param key    key
      * @param offset offset
      * @return Boolean
      */
+    public Boolean getBit(String key, long offset) {
+        return stringRedisTemplate.opsForValue().getBit(key, offset);
+    }
+
+    /**
+     * {@link #getBit(String, long)} on {@link #KEY}
+     */
     public Boolean getBit(long offset) {
-        return stringRedisTemplate.opsForValue().getBit(KEY, offset);
+        return getBit(KEY, offset);
     }
 
     /**
      * Command 'SETBIT'
      * SETBIT key-name offset value—Treats the byte string as a bit string, and sets the value of the bit in the string at the provided bit offset
      *
+     * @param key    key
      * @param offset offset
      * @param value  value
      * @return boolean
      */
+    public Boolean setBit(String key, long offset, boolean value) {
+        Boolean result = stringRedisTemplate.opsForValue().setBit(key, offset, value);
+        invalidate(key);
+        return result;
+    }
+
+    /**
+     * {@link #setBit(String, long, boolean)} on {@link #KEY}
+     */
     public Boolean setBit(long offset, boolean value) {
-        return stringRedisTemplate.opsForValue().setBit(KEY, offset, value);
+        return setBit(KEY, offset, value);
+    }
+
+    /**
+     * Command 'INCRBY' (pipelined)
+     * Sends one INCRBY per entry in a single pipeline, so the whole batch costs one round trip
+     *
+     * @param deltas key to increment, iterated in the map's order
+     * @return the value of each key after the increment, in the same order as {@code deltas}
+     */
+    public List<Long> incrByAll(Map<String, Long> deltas) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            deltas.forEach((key, delta) -> stringConnection.incrBy(key, delta));
+            return null;
+        });
+        invalidate(deltas.keySet());
+        return results.stream().map(Long.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Command 'INCRBYFLOAT' (pipelined)
+     * Sends one INCRBYFLOAT per entry in a single pipeline
+     *
+     * @param deltas key to increment, iterated in the map's order
+     * @return the value of each key after the increment, in the same order as {@code deltas}
+     */
+    public List<Double> incrByFloatAll(Map<String, Double> deltas) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            deltas.forEach((key, delta) -> stringConnection.incrBy(key, delta));
+            return null;
+        });
+        invalidate(deltas.keySet());
+        return results.stream().map(Double.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Command 'SETBIT' (pipelined)
+     * Sets every given bit offset of the key to the same value in a single pipeline
+     *
+     * @param key     key
+     * @param offsets offsets
+     * @param value   value
+     * @return the previous value of each bit, in the same order as {@code offsets}
+     */
+    public List<Boolean> setBits(String key, long[] offsets, boolean value) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (long offset : offsets) {
+                stringConnection.setBit(key, offset, value);
+            }
+            return null;
+        });
+        invalidate(key);
+        return results.stream().map(Boolean.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * {@link #setBits(String, long[], boolean)} on {@link #KEY}
+     */
+    public List<Boolean> setBits(long[] offsets, boolean value) {
+        return setBits(KEY, offsets, value);
+    }
+
+    /**
+     * Command 'INCRBY' on one sub-key of a sharded counter, chosen round-robin
+     *
+     * @param key   key
+     * @param delta delta
+     * @return the value of the sub-key after the increment, not the counter total
+     */
+    public Long incrBy(ShardedKey key, long delta) {
+        return incrBy(key.next(), delta);
+    }
+
+    /**
+     * Command 'MGET' over every sub-key of a sharded counter
+     *
+     * @param key key
+     * @return the counter total
+     */
+    public long sum(ShardedKey key) {
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(key.getShards());
+        if (values == null) {
+            return 0;
+        }
+        return values.stream().filter(Objects::nonNull).mapToLong(Long::parseLong).sum();
+    }
+
+    private void invalidate(String key) {
+        invalidate(Collections.singleton(key));
+    }
+
+    /**
+     * Drop the keys from the local near cache and tell the other nodes to do the same
+     */
+    private void invalidate(Collection<String> keys) {
+        if (!nearCache.isEnabled()) {
+            return;
+        }
+        keys.forEach(nearCache::invalidate);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            keys.forEach(key -> stringConnection.publish(StringNearCache.INVALIDATION_CHANNEL, key));
+            return null;
+        });
     }
 }
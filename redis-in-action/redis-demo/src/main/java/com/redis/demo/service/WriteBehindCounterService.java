@@ -0,0 +1,198 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces hot counter increments in-process and writes them behind to Redis.
+ * Every key keeps a local {@link LongAdder}; a flush sends one INCRBY per dirty key through
+ * {@link StringRedisService#incrByAll(Map)}, either on a fixed interval or once the number of
+ * buffered increments reaches the threshold. Keys that saw no increment for a whole flush interval are
+ * dropped from the local map, so it only holds recently used keys.
+ */
+@Slf4j
+@Service
+public class WriteBehindCounterService {
+
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Adders removed by the last flush; a writer may have looked one up just before the removal,
+     * so they are drained once more by the next flush
+     */
+    private volatile Map<String, LongAdder> retired = Collections.emptyMap();
+
+    private final LongAdder pendingIncrements = new LongAdder();
+
+    private final LongAdder coalescedIncrements = new LongAdder();
+
+    private final LongAdder flushedCommands = new LongAdder();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    @Resource
+    private StringRedisService stringRedisService;
+
+    @Value("${redis-demo.counter.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${redis-demo.counter.flush-threshold:10000}")
+    private long flushThreshold;
+
+    /**
+     * Summing the adder on every increment would contend like a single counter, so the threshold is checked
+     * on a random 1/n of increments; it is overshot by about n
+     */
+    private int thresholdCheckEvery;
+
+    @PostConstruct
+    public void start() {
+        thresholdCheckEvery = (int) Math.max(1, Math.min(Integer.MAX_VALUE, flushThreshold / 64));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "counter-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffer an increment of 1 for the key
+     */
+    public void incr(String key) {
+        incrBy(key, 1);
+    }
+
+    /**
+     * Buffer an increment for the key, the value reaches Redis on the next flush.
+     * After {@link #shutdown()} nothing flushes any more, so the increment is written through instead.
+     *
+     * @param key   key
+     * @param delta delta
+     */
+    public void incrBy(String key, long delta) {
+        if (scheduler.isShutdown()) {
+            stringRedisService.incrBy(key, delta);
+            return;
+        }
+        pending.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        pendingIncrements.increment();
+        if (ThreadLocalRandom.current().nextInt(thresholdCheckEvery) == 0
+                && pendingIncrements.sum() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Send every buffered delta to Redis with one pipelined INCRBY per key.
+     * Deltas are subtracted from the adders rather than reset, so increments racing with the flush stay buffered.
+     *
+     * @return number of INCRBY commands sent
+     */
+    public synchronized int flush() {
+        flushScheduled.set(false);
+        long increments = pendingIncrements.sum();
+        pendingIncrements.add(-increments);
+
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        retired.forEach((key, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                deltas.put(key, delta);
+            }
+        });
+        Map<String, LongAdder> nowRetired = new LinkedHashMap<>();
+        pending.forEach((key, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                adder.add(-delta);
+                deltas.merge(key, delta, Long::sum);
+            } else if (pending.remove(key, adder)) {
+                // Idle since the last flush
+                nowRetired.put(key, adder);
+            }
+        });
+        retired = nowRetired;
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        try {
+            stringRedisService.incrByAll(deltas);
+        } catch (RuntimeException e) {
+            // Put the deltas back so they are retried on the next flush
+            deltas.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(delta));
+            pendingIncrements.add(increments);
+            throw e;
+        }
+        flushedCommands.add(deltas.size());
+        coalescedIncrements.add(Math.max(0, increments - deltas.size()));
+        return deltas.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * Sum of the deltas buffered locally and not yet written to Redis
+     */
+    public long getPendingDelta() {
+        return pending.values().stream().mapToLong(LongAdder::sum).sum()
+                + retired.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Number of keys held in the local map
+     */
+    public int getTrackedKeys() {
+        return pending.size();
+    }
+
+    /**
+     * Number of keys holding a non-zero buffered delta
+     */
+    public long getPendingKeys() {
+        return pending.values().stream().filter(adder -> adder.sum() != 0).count();
+    }
+
+    /**
+     * Number of INCRBY commands sent to Redis so far
+     */
+    public long getFlushedCommands() {
+        return flushedCommands.sum();
+    }
+
+    /**
+     * Number of increments that were merged into another key's INCRBY instead of costing their own round trip
+     */
+    public long getCoalescedIncrements() {
+        return coalescedIncrements.sum();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Counter flush failed, deltas kept for retry [pendingKeys:{}]", getPendingKeys(), e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.redis.demo.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class MessageDispatcherTest {
+
+    @Test
+    void ringBuffer() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void blockDeliversEverything() throws InterruptedException {
+        int count = 200000;
+        CountDownLatch done = new CountDownLatch(count);
+        LongAdder batches = new LongAdder();
+        MessageDispatcher<Integer> dispatcher = new MessageDispatcher<>("test", 1024, 4, 64, OverflowPolicy.BLOCK, batch -> {
+            batches.increment();
+            batch.forEach(message -> done.countDown());
+        });
+        long start = System.nanoTime();
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < count / 4; i++) {
+                    dispatcher.publish(i);
+                }
+            });
+            producers[p].start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        dispatcher.close();
+        log.info("Dispatcher [messages:{} batches:{} msg/s:{} maxLag:{}us]", count, batches.sum(),
+                count * 1_000_000_000L / elapsed, dispatcher.getMaxLag(TimeUnit.MICROSECONDS));
+        assertEquals(count, dispatcher.getHandled());
+        assertEquals(0, dispatcher.getDropped());
+    }
+
+    @Test
+    void dropWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        MessageDispatcher<Integer> dispatcher = new MessageDispatcher<>("test", 4, 1, 1, OverflowPolicy.DROP, batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            dispatcher.publish(i);
+        }
+        assertTrue(dispatcher.getDropped() > 0);
+        assertEquals(100, dispatcher.getPublished() + dispatcher.getDropped());
+        release.countDown();
+        dispatcher.close();
+    }
+}
@@ -0,0 +1,133 @@
+package com.redis.demo.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class SerializerBenchmarkTest {
+
+    private static final int ROUNDS = 20000;
+
+    @Test
+    void compareWithJson() {
+        Jackson2JsonRedisSerializer<Object> json = new Jackson2JsonRedisSerializer<>(Object.class);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        json.setObjectMapper(objectMapper);
+
+        Order order = sampleOrder();
+        long jsonBytes = run("json", json, order);
+        long smileBytes = run("smile", new SmileRedisSerializer(), order);
+        long lz4Bytes = run("smile+lz4", new Lz4RedisSerializer<>(new SmileRedisSerializer(), 1024), order);
+        assertTrue(smileBytes < jsonBytes);
+        assertTrue(lz4Bytes < smileBytes);
+    }
+
+    @Test
+    void lz4RoundTrip() {
+        Lz4RedisSerializer<Object> serializer = new Lz4RedisSerializer<>(new SmileRedisSerializer(), 64);
+        assertEquals("small", serializer.deserialize(serializer.serialize("small")));
+        Order order = sampleOrder();
+        assertEquals(order, serializer.deserialize(serializer.serialize(order)));
+        assertNull(serializer.deserialize(serializer.serialize(null)));
+    }
+
+    @Test
+    void smileRejectsUnlistedTypes() throws Exception {
+        ObjectMapper writer = new ObjectMapper(new SmileFactory());
+        writer.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        List<Object> payload = new ArrayList<>();
+        payload.add(new AtomicLong(5));
+        byte[] bytes = writer.writerFor(Object.class).writeValueAsBytes(payload);
+        assertThrows(SerializationException.class, () -> new SmileRedisSerializer().deserialize(bytes));
+    }
+
+    @Test
+    void lz4RejectsCorruptPayloads() {
+        Lz4RedisSerializer<Object> serializer = new Lz4RedisSerializer<>(new SmileRedisSerializer(), 64);
+        byte[] negative = ByteBuffer.allocate(9).put((byte) 1).putInt(-1).putInt(0).array();
+        assertThrows(SerializationException.class, () -> serializer.deserialize(negative));
+        byte[] huge = ByteBuffer.allocate(9).put((byte) 1).putInt(Integer.MAX_VALUE).putInt(0).array();
+        assertThrows(SerializationException.class, () -> serializer.deserialize(huge));
+        byte[] valid = serializer.serialize(sampleOrder());
+        byte[] truncated = new byte[valid.length / 2];
+        System.arraycopy(valid, 0, truncated, 0, truncated.length);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+        // Header longer than what the block holds: a fast decompressor would read past the block
+        byte[] longer = valid.clone();
+        ByteBuffer.wrap(longer).putInt(1, ByteBuffer.wrap(valid).getInt(1) + 1);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(longer));
+    }
+
+    private long run(String name, RedisSerializer<Object> serializer, Order order) {
+        byte[] bytes = serializer.serialize(order);
+        assertEquals(order, serializer.deserialize(bytes));
+        // Warm up before timing
+        for (int i = 0; i < ROUNDS; i++) {
+            serializer.deserialize(serializer.serialize(order));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            serializer.serialize(order);
+        }
+        long encode = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long decode = System.nanoTime() - start;
+        log.info("Serializer {} [bytes:{} encode:{}us/op decode:{}us/op]", name, bytes.length,
+                encode / ROUNDS / 1000.0, decode / ROUNDS / 1000.0);
+        return bytes.length;
+    }
+
+    private Order sampleOrder() {
+        Order order = new Order();
+        order.setId("order-42");
+        order.setCustomer("Taco Cloud Customer");
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Line line = new Line();
+            line.setIngredient("ingredient-" + (i % 7));
+            line.setQuantity(i);
+            line.setPrice(1.25 * i);
+            lines.add(line);
+        }
+        order.setLines(lines);
+        return order;
+    }
+
+    @Data
+    static class Order {
+        private String id;
+        private String customer;
+        private List<Line> lines;
+    }
+
+    @Data
+    static class Line {
+        private String ingredient;
+        private int quantity;
+        private double price;
+    }
+}
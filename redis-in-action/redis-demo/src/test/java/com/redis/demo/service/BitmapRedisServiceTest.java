@@ -0,0 +1,46 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class BitmapRedisServiceTest {
+
+    @Resource
+    private BitmapRedisService service;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void dailyActiveUsers() {
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        String todayKey = service.dayKey("active", today);
+        String yesterdayKey = service.dayKey("active", yesterday);
+        stringRedisTemplate.delete(todayKey);
+        stringRedisTemplate.delete(yesterdayKey);
+
+        service.setBits(todayKey, new long[]{1, 7, 8, 100}, true);
+        service.setBits(yesterdayKey, new long[]{7, 100, 1000}, true);
+        log.info("Command bitcount [today:{} yesterday:{}]", service.bitCount(todayKey), service.bitCount(yesterdayKey));
+
+        Long both = service.countActiveOnAll("active", "active:both", today, yesterday);
+        Long any = service.countActiveOnAny("active", "active:any", today, yesterday);
+        log.info("Command bitop [and:{} or:{}]", both, any);
+        assertEquals(2L, both);
+        assertEquals(5L, any);
+
+        long[] offsets = service.setBitOffsets(todayKey).toArray();
+        log.info("Set bits of today:{}", offsets);
+        assertArrayEquals(new long[]{1, 7, 8, 100}, offsets);
+    }
+}
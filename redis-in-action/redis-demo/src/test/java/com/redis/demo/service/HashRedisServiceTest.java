@@ -1,9 +1,14 @@
 package com.redis.demo.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.demo.hash.HashEntity;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import javax.annotation.Resource;
 import java.util.ArrayList;
@@ -11,6 +16,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 @Slf4j
 @SpringBootTest
 public class HashRedisServiceTest {
@@ -18,6 +25,12 @@ public class HashRedisServiceTest {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private HashRedisService hashRedisService;
+
     private final String key = "hash-key";
     private final String key2 = "hash-key2";
 
@@ -56,4 +69,80 @@ public class HashRedisServiceTest {
         log.info("Command hget hash-key num :{}", redisTemplate.opsForHash().get(key2, "num"));
         log.info("After save hash-key2:{}", redisTemplate.opsForHash().values(key2));
     }
+
+    @Test
+    void objectMapping() {
+        HashEntity<Profile> saved = hashRedisService.save("profile:1", profile(1));
+        saved.getObject().setVisits(42);
+        saved.getObject().setNickname(null);
+        log.info("Changed fields:{} removed fields:{}", saved.changedFields(), saved.removedFields());
+        assertEquals(2, hashRedisService.update(saved));
+        assertEquals(0, hashRedisService.update(saved));
+
+        HashEntity<Profile> loaded = hashRedisService.load(Profile.class, "profile:1");
+        log.info("Command hgetall :{}", loaded.getObject());
+        assertEquals(saved.getObject(), loaded.getObject());
+        Profile partial = hashRedisService.load(Profile.class, "profile:1", "name", "visits");
+        log.info("Command hmget :{}", partial);
+        assertEquals(42, partial.getVisits());
+        assertNull(partial.getEmail());
+    }
+
+    @Test
+    void benchmarkAgainstJson() throws JsonProcessingException {
+        int count = 1000;
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add("profile:" + i);
+            hashRedisService.save("profile:" + i, profile(i));
+            stringRedisTemplate.opsForValue().set("profile-json:" + i, objectMapper.writeValueAsString(profile(i)));
+        }
+
+        long start = System.nanoTime();
+        List<HashEntity<Profile>> entities = hashRedisService.loadAll(Profile.class, keys);
+        long hashLoad = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (HashEntity<Profile> entity : entities) {
+            entity.getObject().setVisits(entity.getObject().getVisits() + 1);
+            hashRedisService.update(entity);
+        }
+        long hashUpdate = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<Profile> profiles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            profiles.add(objectMapper.readValue(stringRedisTemplate.opsForValue().get("profile-json:" + i), Profile.class));
+        }
+        long jsonLoad = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            profiles.get(i).setVisits(profiles.get(i).getVisits() + 1);
+            stringRedisTemplate.opsForValue().set("profile-json:" + i, objectMapper.writeValueAsString(profiles.get(i)));
+        }
+        long jsonUpdate = System.nanoTime() - start;
+        log.info("Hash [load:{}ms update one field:{}ms] vs JSON [load:{}ms update one field:{}ms]",
+                hashLoad / 1_000_000, hashUpdate / 1_000_000, jsonLoad / 1_000_000, jsonUpdate / 1_000_000);
+    }
+
+    private Profile profile(int id) {
+        Profile profile = new Profile();
+        profile.setId(id);
+        profile.setName("user-" + id);
+        profile.setNickname("nick-" + id);
+        profile.setEmail("user-" + id + "@example.com");
+        profile.setVisits(id);
+        profile.setActive(true);
+        return profile;
+    }
+
+    @Data
+    static class Profile {
+        private long id;
+        private String name;
+        private String nickname;
+        private String email;
+        private int visits;
+        private boolean active;
+    }
 }
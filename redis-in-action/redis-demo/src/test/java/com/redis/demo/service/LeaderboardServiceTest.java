@@ -0,0 +1,85 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class LeaderboardServiceTest {
+
+    @Resource
+    private LeaderboardService service;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void topAndAround() {
+        String board = "leaderboard";
+        stringRedisTemplate.delete(board);
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            scores.put("player-" + i, (double) i);
+        }
+        service.incrementScores(board, scores);
+
+        List<ZSetOperations.TypedTuple<String>> top = service.top(board, 3);
+        log.info("Command zrevrange:{}", top);
+        assertEquals("player-49", top.get(0).getValue());
+
+        // The cached top entries follow later updates without a reload
+        service.incrementScores(board, Map.of("player-0", 100.0));
+        top = service.top(board, 3);
+        assertEquals("player-0", top.get(0).getValue());
+        assertEquals(100.0, top.get(0).getScore());
+
+        LeaderboardService.Window window = service.around(board, "player-25", 2);
+        log.info("Around player-25:{} from rank {}", window.getEntries(), window.getFirstRank());
+        assertEquals(25, window.getRank());
+        assertEquals(5, window.getEntries().size());
+        assertEquals("player-25", window.getEntries().get(2).getValue());
+        assertNull(service.around(board, "nobody", 2));
+    }
+
+    @Test
+    void droppedMemberLeavesFullCache() {
+        String board = "leaderboard-drop";
+        stringRedisTemplate.delete(board);
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < 150; i++) {
+            scores.put("player-" + i, (double) i);
+        }
+        service.incrementScores(board, scores);
+        // Loads the full cache, player-50 to player-149
+        assertEquals("player-149", service.top(board, 100).get(0).getValue());
+
+        service.incrementScores(board, Map.of("player-149", -200.0));
+        List<ZSetOperations.TypedTuple<String>> top = service.top(board, 100);
+        assertEquals("player-148", top.get(0).getValue());
+        assertEquals("player-49", top.get(99).getValue());
+        assertTrue(top.stream().noneMatch(entry -> "player-149".equals(entry.getValue())));
+    }
+
+    @Test
+    void mergeWindow() {
+        String board = "leaderboard-window";
+        stringRedisTemplate.delete(board);
+        stringRedisTemplate.delete(service.windowKey(board));
+        stringRedisTemplate.delete(service.windowBucketKeys(board));
+        service.incrementScores(board, Map.of("player-1", 1.0, "player-2", 2.0));
+        Long size = service.mergeWindow(board);
+        log.info("Command zunionstore:{}", size);
+        assertEquals(2L, size);
+        assertEquals(2.0, stringRedisTemplate.opsForZSet().score(service.windowKey(board), "player-2"));
+    }
+}
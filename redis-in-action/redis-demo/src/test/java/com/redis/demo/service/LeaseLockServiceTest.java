@@ -0,0 +1,85 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class LeaseLockServiceTest {
+
+    @Resource
+    private LeaseLockService service;
+
+    @Test
+    void reentrantAndFenced() throws InterruptedException {
+        try (Lease outer = service.tryAcquire("lease-key", Duration.ofSeconds(10), Duration.ofSeconds(1))) {
+            assertNotNull(outer);
+            log.info("Acquired lease token:{}", outer.getToken());
+            try (Lease inner = service.tryAcquire("lease-key", Duration.ofSeconds(10), Duration.ofSeconds(1))) {
+                assertSame(outer, inner);
+            }
+            assertTrue(outer.isValid());
+        }
+        try (Lease next = service.tryAcquire("lease-key", Duration.ofSeconds(10), Duration.ofSeconds(1))) {
+            assertNotNull(next);
+            log.info("Acquired lease again token:{}", next.getToken());
+            assertTrue(next.getToken() > 0);
+        }
+    }
+
+    @Test
+    void watchdogRenews() throws InterruptedException {
+        try (Lease lease = service.tryAcquire("lease-renew", Duration.ofMillis(300), Duration.ofSeconds(1))) {
+            TimeUnit.MILLISECONDS.sleep(1000);
+            assertTrue(lease.isValid());
+        }
+    }
+
+    @Test
+    void contentionBenchmark() throws Exception {
+        for (int threads : new int[]{1, 8, 64}) {
+            int perThread = 200;
+            AtomicInteger inside = new AtomicInteger();
+            AtomicLong lastToken = new AtomicLong();
+            AtomicInteger violations = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        try (Lease lease = service.tryAcquire("lease-bench", Duration.ofSeconds(10), Duration.ofSeconds(30))) {
+                            if (inside.incrementAndGet() != 1 || lease.getToken() <= lastToken.getAndSet(lease.getToken())) {
+                                violations.incrementAndGet();
+                            }
+                            inside.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            pool.shutdown();
+            log.info("{} threads: {} acquisitions/s", threads, (long) threads * perThread * TimeUnit.SECONDS.toNanos(1) / elapsed);
+            assertEquals(0, violations.get());
+        }
+        log.info("Acquired:{} redis attempts:{} reentered:{}", service.getAcquired(), service.getRedisAttempts(), service.getReentered());
+    }
+}
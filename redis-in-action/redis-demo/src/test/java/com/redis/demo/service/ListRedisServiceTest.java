@@ -4,8 +4,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisTemplate;
 
 import javax.annotation.Resource;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,6 +20,9 @@ class ListRedisServiceTest {
     @Resource
     private ListRedisService listRedisService;
 
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
     @Test
     @DisplayName("Command Lists")
     void command() {
@@ -48,7 +55,58 @@ class ListRedisServiceTest {
 
         Object o3 = listRedisService.rPopLPush();
         log.info("After blPop:{},data:{}", o3, listRedisService.lRange(0, 100));
-        Object o4 = listRedisService.bRPopLPush();
+        Object o4 = listRedisService.bRPopLPush(2L);
         log.info("After blPop:{},data:{}", o4, listRedisService.lRange(0, 100));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Command Lists Batch")
+    void batchCommand() {
+        listRedisService.lTrim(1, 0);
+        listRedisService.rPush(new String[]{"Apple", "Pear", "Orange", "Tomato", "Banana", "Cherry"});
+        List<Object> left = listRedisService.lPopBatch(2);
+        log.info("After lPopBatch:{},data:{}", left, listRedisService.lRange(0, 100));
+        assertEquals(List.of("Apple", "Pear"), left);
+        List<Object> right = listRedisService.rPopBatch(2);
+        log.info("After rPopBatch:{},data:{}", right, listRedisService.lRange(0, 100));
+        assertEquals(List.of("Cherry", "Banana"), right);
+        List<Object> drained = listRedisService.drain(1).collect(Collectors.toList()).block();
+        log.info("After drain:{},data:{}", drained, listRedisService.lRange(0, 100));
+        assertEquals(List.of("Orange", "Tomato"), drained);
+    }
+
+    @Test
+    @DisplayName("Command Lists Sharded")
+    void shardedCommand() {
+        ShardedKey key = ShardedKey.of("sharded-list", 3);
+        key.getShards().forEach(shard -> listRedisService.lTrim(shard, 1, 0));
+        for (int i = 0; i < 6; i++) {
+            listRedisService.rPush(key, new String[]{"item-" + i});
+        }
+        log.info("After sharded rpush:{}", listRedisService.lLen(key));
+        assertEquals(6L, listRedisService.lLen(key));
+        Object item = listRedisService.lPop(key);
+        log.info("After sharded lpop:{},size:{}", item, listRedisService.lLen(key));
+        assertNotNull(item);
+        assertEquals(5L, listRedisService.lLen(key));
+    }
+
+    @Test
+    @DisplayName("Command Lists Batch empty count")
+    void batchZero() {
+        assertTrue(listRedisService.lPopBatch(0).isEmpty());
+        assertTrue(listRedisService.rPopBatch(-1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Command Lists Batch WRONGTYPE")
+    void batchWrongType() {
+        String key = "list-batch-wrongtype";
+        redisTemplate.opsForValue().set(key, "not a list");
+        boolean supported = listRedisService.isPopCountSupported();
+        assertThrows(RedisSystemException.class, () -> listRedisService.lPopBatch(key, 2));
+        // Only a rejected count argument switches to the script fallback
+        assertEquals(supported, listRedisService.isPopCountSupported());
+        redisTemplate.delete(key);
+    }
+}
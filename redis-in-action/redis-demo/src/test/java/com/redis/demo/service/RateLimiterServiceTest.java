@@ -0,0 +1,83 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class RateLimiterServiceTest {
+
+    @Resource
+    private RateLimiterService service;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void slidingWindow() throws InterruptedException {
+        String key = "limited";
+        stringRedisTemplate.delete(service.windowKey(key));
+        int allowed = 0;
+        for (int i = 0; i < 20; i++) {
+            if (service.tryAcquire(key, 5, Duration.ofMillis(500), 1)) {
+                allowed++;
+            }
+        }
+        log.info("Allowed {} of 20", allowed);
+        assertEquals(5, allowed);
+
+        // The window slides, earlier admissions fall out of it
+        TimeUnit.MILLISECONDS.sleep(600);
+        assertTrue(service.tryAcquire(key, 5, Duration.ofMillis(500), 1));
+    }
+
+    @Test
+    void localBatchNeverExceedsLimit() {
+        String key = "limited-batch";
+        stringRedisTemplate.delete(service.windowKey(key));
+        int allowed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (service.tryAcquire(key, 100, Duration.ofMinutes(1), 10)) {
+                allowed++;
+            }
+        }
+        assertEquals(100, allowed);
+        assertEquals(100L, stringRedisTemplate.opsForZSet().zCard(service.windowKey(key)));
+    }
+
+    @Test
+    void reservationsCoverTheLocalHold() {
+        String key = "limited-hold";
+        stringRedisTemplate.delete(service.windowKey(key));
+        long before = System.currentTimeMillis();
+        assertTrue(service.tryAcquire(key, 100, Duration.ofMinutes(1), 10));
+        // Scored with the end of the local hold, so tokens spent late still count for a full window
+        Double score = stringRedisTemplate.opsForZSet().reverseRangeWithScores(service.windowKey(key), 0, 0)
+                .iterator().next().getScore();
+        assertTrue(score >= before + 100, "score " + score);
+    }
+
+    @Test
+    void benchmark() {
+        int count = 100000;
+        for (int batch : new int[]{1, 10, 100}) {
+            String key = "limited-bench-" + batch;
+            stringRedisTemplate.delete(service.windowKey(key));
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                service.tryAcquire(key, Integer.MAX_VALUE, Duration.ofSeconds(1), batch);
+            }
+            long elapsed = System.nanoTime() - start;
+            log.info("Local batch {}: {} decisions/s", batch, count * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+        log.info("Local decisions:{} redis decisions:{}", service.getLocalDecisions(), service.getRedisDecisions());
+    }
+}
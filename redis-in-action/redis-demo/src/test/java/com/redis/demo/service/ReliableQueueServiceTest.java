@@ -0,0 +1,78 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class ReliableQueueServiceTest {
+
+    @Resource
+    private ReliableQueueService service;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void ackAndRequeue() {
+        String queue = "reliable-queue";
+        String processing = service.processingKey(queue, "test-consumer");
+        stringRedisTemplate.delete(service.queueKey(queue));
+        stringRedisTemplate.delete(processing);
+        stringRedisTemplate.delete(processing + ":claims");
+
+        service.register(queue, "test-consumer");
+        service.enqueue(queue, "job-1", "job-2");
+        String first = service.poll(queue, "test-consumer", Duration.ofSeconds(1));
+        assertEquals("job-1", first);
+        service.ack(queue, "test-consumer", first);
+
+        String second = service.poll(queue, "test-consumer", Duration.ofSeconds(1));
+        assertEquals("job-2", second);
+        // Never acked, so it goes back to the queue once the visibility timeout has passed
+        long requeued = service.requeueStalled(queue, Duration.ZERO);
+        log.info("Requeued stalled items:{}", requeued);
+        assertEquals(1, requeued);
+        assertEquals(1L, service.size(queue));
+        assertEquals(0L, stringRedisTemplate.opsForList().size(processing));
+    }
+
+    @Test
+    void benchmarkConsumers() throws InterruptedException {
+        for (int concurrency : new int[]{1, 8, 64}) {
+            benchmark(concurrency, 10000);
+        }
+    }
+
+    private void benchmark(int concurrency, int count) throws InterruptedException {
+        String queue = "reliable-queue-bench-" + concurrency;
+        stringRedisTemplate.delete(service.queueKey(queue));
+        CountDownLatch done = new CountDownLatch(count);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        try (ReliableQueueConsumer ignored = service.startConsumers(queue, concurrency, Duration.ofSeconds(30), item -> {
+            latencies.add(System.nanoTime() - Long.parseLong(item.substring(item.indexOf(':') + 1)));
+            done.countDown();
+        })) {
+            for (int i = 0; i < count; i++) {
+                service.enqueue(queue, i + ":" + System.nanoTime());
+            }
+            assertTrue(done.await(2, TimeUnit.MINUTES));
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        log.info("Reliable queue [consumers:{} items:{} items/s:{} p50:{}us p99:{}us]", concurrency, count,
+                count * 1_000_000_000L / elapsed,
+                sorted[sorted.length / 2] / 1000, sorted[(int) (sorted.length * 0.99)] / 1000);
+    }
+}
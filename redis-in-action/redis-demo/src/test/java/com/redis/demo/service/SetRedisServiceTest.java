@@ -6,7 +6,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
 
 import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @Slf4j
 @SpringBootTest
@@ -15,6 +21,9 @@ class SetRedisServiceTest {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private SetRedisService service;
+
     @Test
     void oneSet() {
         Long add = redisTemplate.opsForSet().add("set-key", "a", "b", "c", "e", "f", "g"); // command sadd
@@ -59,4 +68,30 @@ class SetRedisServiceTest {
         Set<Object> union = redisTemplate.opsForSet().union("skey1", "skey2");// command sunion
         log.info("Union between skey1&skey2:{}", union);
     }
+
+    @Test
+    void storeAndScan() {
+        redisTemplate.delete(List.of("skey1", "skey2"));
+        redisTemplate.opsForSet().add("skey1", "a", "b", "c", "d");
+        redisTemplate.opsForSet().add("skey2", "c", "d", "e", "f");
+        Long diff = service.diffStore("skey-diff", Duration.ofMinutes(1), "skey1", "skey2"); // command sdiffstore
+        Long inter = service.interStore("skey-inter", Duration.ofMinutes(1), "skey1", "skey2"); // command sinterstore
+        Long union = service.unionStore("skey-union", Duration.ofMinutes(1), "skey1", "skey2"); // command sunionstore
+        log.info("Stored diff:{} inter:{} union:{}", diff, inter, union);
+        assertEquals(2L, diff);
+        assertEquals(2L, inter);
+        assertEquals(6L, union);
+        Long ttl = redisTemplate.getExpire("skey-union");
+        log.info("skey-union ttl:{}", ttl);
+        assertTrue(ttl != null && ttl > 0);
+
+        try (Stream<Object> members = service.scan("skey-union", 2)) { // command sscan
+            Set<Object> scanned = members.collect(Collectors.toSet());
+            log.info("Scanned skey-union:{}", scanned);
+            assertEquals(6, scanned.size());
+        }
+        List<Object> scanned = service.scanFlux("skey-inter", 2).collectList().block();
+        log.info("Scanned skey-inter:{}", scanned);
+        assertEquals(2, scanned.size());
+    }
 }
@@ -0,0 +1,69 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class StreamRedisServiceTest {
+
+    @Resource
+    private StreamRedisService service;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void readAckAndClaim() throws InterruptedException {
+        String stream = "event-stream";
+        stringRedisTemplate.delete(stream);
+        service.createGroup(stream, "group");
+        for (int i = 0; i < 5; i++) {
+            service.add(stream, Collections.singletonMap("event", "event-" + i), 1000);
+        }
+        List<StringRecord> records = service.read(stream, "group", "consumer-1", 3, Duration.ofMillis(100));
+        log.info("Command xreadgroup:{}", records);
+        assertEquals(3, records.size());
+        service.ack(stream, "group", Collections.singletonList(records.get(0).getId()));
+
+        // Two entries are still pending for consumer-1, consumer-2 takes them over once they are idle
+        TimeUnit.MILLISECONDS.sleep(50);
+        List<StringRecord> claimed = service.autoClaim(stream, "group", "consumer-2", Duration.ofMillis(10), 10);
+        log.info("Command xautoclaim:{}", claimed);
+        assertEquals(2, claimed.size());
+        assertEquals(2L, service.ack(stream, "group", List.of(claimed.get(0).getId(), claimed.get(1).getId())));
+    }
+
+    @Test
+    void endToEndLatency() throws InterruptedException {
+        String stream = "event-stream-bench";
+        stringRedisTemplate.delete(stream);
+        int count = 10000;
+        CountDownLatch done = new CountDownLatch(count);
+        try (StreamConsumer consumer = service.startConsumer(stream, "bench", "consumer-1", 100, Duration.ofSeconds(30),
+                batch -> batch.forEach(record -> done.countDown()))) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                RecordId id = service.add(stream, Collections.singletonMap("event", String.valueOf(i)), count);
+                assertNotNull(id);
+            }
+            assertTrue(done.await(1, TimeUnit.MINUTES));
+            long elapsed = System.nanoTime() - start;
+            log.info("Stream [entries:{} entries/s:{} meanLatency:{}ms maxLatency:{}ms]", count,
+                    count * 1_000_000_000L / elapsed, consumer.getMeanLatencyMs(), consumer.getMaxLatencyMs());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest(properties = "redis-demo.near-cache.enabled=true")
+class StringNearCacheTest {
+
+    @Resource
+    private StringRedisService service;
+
+    @Resource
+    private StringNearCache nearCache;
+
+    @Test
+    void readThroughAndInvalidate() {
+        service.add("10");
+        assertEquals("10", service.get());
+        assertEquals("10", service.get());
+        service.incr();
+        assertEquals("11", service.get());
+        log.info("Near cache [hits:{} misses:{} evictions:{} size:{}]",
+                nearCache.getHits(), nearCache.getMisses(), nearCache.getEvictions(), nearCache.size());
+        assertTrue(nearCache.getHits() >= 1);
+    }
+}
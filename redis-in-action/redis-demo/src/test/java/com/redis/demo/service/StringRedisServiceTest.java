@@ -3,8 +3,12 @@ package com.redis.demo.service;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,6 +19,9 @@ class StringRedisServiceTest {
     @Resource
     private StringRedisService service;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
     @Test
     void testNumber() {
         service.add("10");
@@ -63,4 +70,52 @@ class StringRedisServiceTest {
         String value5 = service.get();
         log.info("Method get [Get value from redis string:{}]", value5);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPipeline() {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        deltas.put("counter-a", 1L);
+        deltas.put("counter-b", 10L);
+        deltas.put("counter-c", 100L);
+        List<Long> increments = service.incrByAll(deltas);
+        log.info("Method incrByAll [increments:{}]", increments);
+        assertEquals(deltas.size(), increments.size());
+        List<Boolean> bits = service.setBits(new long[]{1, 3, 5, 7}, true);
+        log.info("Method setBits [previous bits:{}]", bits);
+        assertEquals(4, bits.size());
+    }
+
+    @Test
+    void benchmarkPipeline() {
+        int count = 10000;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            stringRedisTemplate.opsForValue().increment("bench-counter-" + (i % 100), 1L);
+        }
+        long perCall = System.nanoTime() - start;
+        log.info("Per-call INCRBY [ops:{} time:{}ms ops/s:{}]", count, perCall / 1_000_000, count * 1_000_000_000L / perCall);
+
+        Map<String, Long> batch = new LinkedHashMap<>();
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            batch.put("bench-counter-" + (i % 100), 1L);
+            if (batch.size() == 100) {
+                service.incrByAll(batch);
+                batch.clear();
+            }
+        }
+        long pipelined = System.nanoTime() - start;
+        log.info("Pipelined INCRBY [ops:{} time:{}ms ops/s:{}]", count, pipelined / 1_000_000, count * 1_000_000_000L / pipelined);
+    }
+
+    @Test
+    void testShardedCounter() {
+        ShardedKey key = ShardedKey.of("sharded-counter", 4);
+        key.getShards().forEach(stringRedisTemplate::delete);
+        for (int i = 0; i < 10; i++) {
+            service.incrBy(key, 1);
+        }
+        log.info("Sharded counter [shards:{} values:{}]", key.getShards(), stringRedisTemplate.opsForValue().multiGet(key.getShards()));
+        assertEquals(10L, service.sum(key));
+    }
+}
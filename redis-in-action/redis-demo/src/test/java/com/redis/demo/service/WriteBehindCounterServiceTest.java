@@ -0,0 +1,49 @@
+package com.redis.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+class WriteBehindCounterServiceTest {
+
+    @Resource
+    private WriteBehindCounterService service;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void coalesce() {
+        String key = "write-behind-counter";
+        stringRedisTemplate.delete(key);
+        for (int i = 0; i < 5000; i++) {
+            service.incr(key);
+        }
+        log.info("Before flush [pendingDelta:{} pendingKeys:{}]", service.getPendingDelta(), service.getPendingKeys());
+        service.flush();
+        log.info("After flush [flushedCommands:{} coalescedIncrements:{}]", service.getFlushedCommands(), service.getCoalescedIncrements());
+        assertEquals(0, service.getPendingDelta());
+        assertEquals("5000", stringRedisTemplate.opsForValue().get(key));
+    }
+
+    @Test
+    void idleKeysArePruned() {
+        String key = "write-behind-counter-idle";
+        stringRedisTemplate.delete(key);
+        service.incr(key);
+        service.flush();
+        // Nothing new since the last flush, so the key leaves the local map
+        service.flush();
+        assertEquals(0, service.getTrackedKeys());
+        service.incr(key);
+        service.flush();
+        assertEquals("2", stringRedisTemplate.opsForValue().get(key));
+    }
+}
@@ -3,10 +3,8 @@ package com.action.licensing;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.cloud.netflix.hystrix.EnableHystrix;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
-@EnableHystrix // Tells Spring Cloud you’re going to use Hystrix for your service
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
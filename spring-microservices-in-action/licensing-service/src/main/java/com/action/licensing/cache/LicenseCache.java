@@ -0,0 +1,145 @@
+package com.action.licensing.cache;
+
+import com.action.licensing.model.License;
+import com.alibaba.fastjson.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache-aside for license rows in Redis, keyed by organization and license. Organization fields are not
+ * cached here; callers fill them in from {@link OrganizationCache} on every read, so organization changes
+ * show up as soon as that cache is invalidated.
+ * <p>
+ * Concurrent misses for one key in this instance share a single load. Each entry also stores how long
+ * it took to compute, and readers refresh it early with a probability that grows as expiry nears,
+ * so a hot key is usually reloaded by one request before it expires for everyone. Missing licenses are
+ * cached as empty entries with a shorter TTL.
+ */
+@Component
+public class LicenseCache {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final SingleFlight<String, License> loads = new SingleFlight<>();
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${license.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${license.cache.negative-ttl-ms:30000}")
+    private long negativeTtlMs;
+
+    @Value("${license.cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    /**
+     * Cached license, loaded with {@code loader} on a miss or an early refresh
+     *
+     * @return the license, null when the loader found none
+     */
+    public License get(String organizationId, String licenseId, Supplier<License> loader) {
+        String key = key(organizationId, licenseId);
+        CacheEntry entry = read(key);
+        if (entry != null) {
+            boolean refresh = shouldRefreshEarly(entry) && !loads.isInFlight(key);
+            if (!refresh) {
+                return entry.getValue();
+            }
+        }
+        return load(key, loader);
+    }
+
+    public void evict(String organizationId, String licenseId) {
+        try {
+            redisTemplate.delete(key(organizationId, licenseId));
+        } catch (RuntimeException e) {
+            logger.warn("License cache evict failed [{}:{}]", organizationId, licenseId, e);
+        }
+    }
+
+    private License load(String key, Supplier<License> loader) {
+        return loads.execute(key, () -> {
+            long start = System.currentTimeMillis();
+            License license = loader.get();
+            write(key, license, System.currentTimeMillis() - start);
+            return license;
+        });
+    }
+
+    /**
+     * XFetch: refresh when {@code now - computeMs * beta * ln(rand)} passes the expiry
+     */
+    private boolean shouldRefreshEarly(CacheEntry entry) {
+        double random = ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0);
+        double gap = -entry.getComputeMs() * earlyRefreshBeta * Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.getExpiresAt();
+    }
+
+    private CacheEntry read(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            return json == null ? null : JSON.parseObject(json, CacheEntry.class);
+        } catch (RuntimeException e) {
+            // Redis trouble degrades to a direct load, it must not fail the request
+            logger.warn("License cache read failed [{}]", key, e);
+            return null;
+        }
+    }
+
+    private void write(String key, License license, long computeMs) {
+        long ttl = license == null ? negativeTtlMs : ttlMs;
+        CacheEntry entry = new CacheEntry();
+        entry.setValue(license);
+        entry.setComputeMs(computeMs);
+        entry.setExpiresAt(System.currentTimeMillis() + ttl);
+        try {
+            redisTemplate.opsForValue().set(key, JSON.toJSONString(entry), ttl, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            logger.warn("License cache write failed [{}]", key, e);
+        }
+    }
+
+    private String key(String organizationId, String licenseId) {
+        return "license:" + organizationId + ":" + licenseId;
+    }
+
+    public static class CacheEntry {
+        private License value;
+        private long computeMs;
+        private long expiresAt;
+
+        public License getValue() {
+            return value;
+        }
+
+        public void setValue(License value) {
+            this.value = value;
+        }
+
+        public long getComputeMs() {
+            return computeMs;
+        }
+
+        public void setComputeMs(long computeMs) {
+            this.computeMs = computeMs;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public void setExpiresAt(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
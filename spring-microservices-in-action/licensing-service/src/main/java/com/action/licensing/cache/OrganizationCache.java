@@ -0,0 +1,253 @@
+package com.action.licensing.cache;
+
+import com.action.licensing.model.Organization;
+import com.alibaba.fastjson.JSON;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache for organizations: a bounded LRU map in this instance (L1) in front of Redis (L2).
+ * organization-server publishes the id of every updated or deleted organization on
+ * {@link #CHANGE_CHANNEL}; {@link #evict(String)} then drops both copies. Hit ratios per level are
+ * published as the {@code organization.cache.hit.ratio} metric.
+ * <p>
+ * Both levels keep entries past their TTL, up to {@code stale-ttl-ms} in Redis, and serve them when
+ * the loader fails, so an organization-server outage degrades to slightly old data.
+ * <p>
+ * A load that overlaps an eviction of the same organization must not cache what it read. Evictions bump
+ * a generation counter for the organization (striped by id hash, so memory stays bounded and unrelated
+ * organizations rarely interfere); loads compare it before caching, and re-check it after the Redis write,
+ * deleting the entry again if an eviction slipped in between.
+ */
+@Component
+public class OrganizationCache {
+
+    public static final String CHANGE_CHANNEL = "organization-changes";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    /**
+     * Bumped on every eviction of an organization hashing to the stripe
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder l1Hits = new LongAdder();
+
+    private final LongAdder l1Misses = new LongAdder();
+
+    private final LongAdder l2Hits = new LongAdder();
+
+    private final LongAdder l2Misses = new LongAdder();
+
+    private final LongAdder staleServed = new LongAdder();
+
+    private Map<String, LocalEntry> local;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${organization.cache.l1.max-size:10000}")
+    private int l1MaxSize;
+
+    @Value("${organization.cache.l1.ttl-ms:60000}")
+    private long l1TtlMs;
+
+    @Value("${organization.cache.l2.ttl-ms:600000}")
+    private long l2TtlMs;
+
+    @Value("${organization.cache.stale-ttl-ms:86400000}")
+    private long staleTtlMs;
+
+    @PostConstruct
+    public void init() {
+        local = new LinkedHashMap<String, LocalEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > l1MaxSize;
+            }
+        };
+        registerMetrics("l1", l1Hits, l1Misses);
+        registerMetrics("l2", l2Hits, l2Misses);
+        FunctionCounter.builder("organization.cache.stale.served", staleServed, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * Organization from L1, then L2, then {@code loader}; null results are not cached.
+     * When the loader throws, an expired copy is returned if either level still has one.
+     */
+    public Organization get(String organizationId, Supplier<Organization> loader) {
+        long startGeneration = generation(organizationId);
+        Organization organization = getLocal(organizationId);
+        if (organization != null) {
+            l1Hits.increment();
+            return organization;
+        }
+        l1Misses.increment();
+        RemoteEntry remote = getRemote(organizationId);
+        organization = remote != null && System.currentTimeMillis() < remote.getFreshUntil() ? remote.getValue() : null;
+        if (organization != null) {
+            l2Hits.increment();
+        } else {
+            l2Misses.increment();
+            try {
+                organization = loader.get();
+            } catch (RuntimeException e) {
+                Organization stale = getStale(organizationId);
+                if (stale == null) {
+                    throw e;
+                }
+                staleServed.increment();
+                logger.warn("Serving stale organization [{}]: {}", organizationId, e.toString());
+                return stale;
+            }
+            if (organization == null) {
+                return null;
+            }
+            if (generation(organizationId) == startGeneration) {
+                putRemote(organizationId, organization, startGeneration);
+            }
+        }
+        putLocal(organizationId, organization, startGeneration);
+        return organization;
+    }
+
+    /**
+     * Drop the organization from both levels, called for every change event
+     */
+    public void evict(String organizationId) {
+        synchronized (this) {
+            generations.incrementAndGet(stripe(organizationId));
+            local.remove(organizationId);
+        }
+        try {
+            redisTemplate.delete(key(organizationId));
+        } catch (RuntimeException e) {
+            logger.warn("Organization cache evict failed [{}]", organizationId, e);
+        }
+    }
+
+    private synchronized Organization getLocal(String organizationId) {
+        LocalEntry entry = local.get(organizationId);
+        return entry == null || System.currentTimeMillis() >= entry.expiresAt ? null : entry.organization;
+    }
+
+    /**
+     * Copy from either level regardless of its age
+     */
+    private Organization getStale(String organizationId) {
+        synchronized (this) {
+            LocalEntry entry = local.get(organizationId);
+            if (entry != null) {
+                return entry.organization;
+            }
+        }
+        RemoteEntry remote = getRemote(organizationId);
+        return remote == null ? null : remote.getValue();
+    }
+
+    private synchronized void putLocal(String organizationId, Organization organization, long startGeneration) {
+        if (generation(organizationId) == startGeneration) {
+            local.put(organizationId, new LocalEntry(organization, System.currentTimeMillis() + l1TtlMs));
+        }
+    }
+
+    private RemoteEntry getRemote(String organizationId) {
+        try {
+            String json = redisTemplate.opsForValue().get(key(organizationId));
+            return json == null ? null : JSON.parseObject(json, RemoteEntry.class);
+        } catch (RuntimeException e) {
+            logger.warn("Organization cache read failed [{}]", organizationId, e);
+            return null;
+        }
+    }
+
+    private void putRemote(String organizationId, Organization organization, long startGeneration) {
+        RemoteEntry entry = new RemoteEntry();
+        entry.setValue(organization);
+        entry.setFreshUntil(System.currentTimeMillis() + l2TtlMs);
+        try {
+            redisTemplate.opsForValue().set(key(organizationId), JSON.toJSONString(entry), staleTtlMs, TimeUnit.MILLISECONDS);
+            if (generation(organizationId) != startGeneration) {
+                // Evicted between the check and the write, which may have put back what the eviction deleted
+                redisTemplate.delete(key(organizationId));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Organization cache write failed [{}]", organizationId, e);
+        }
+    }
+
+    private void registerMetrics(String level, LongAdder hits, LongAdder misses) {
+        FunctionCounter.builder("organization.cache.requests", hits, LongAdder::sum)
+                .tag("level", level).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("organization.cache.requests", misses, LongAdder::sum)
+                .tag("level", level).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("organization.cache.hit.ratio", () -> {
+            long hit = hits.sum();
+            long total = hit + misses.sum();
+            return total == 0 ? 0 : (double) hit / total;
+        }).tag("level", level).register(meterRegistry);
+    }
+
+    private long generation(String organizationId) {
+        return generations.get(stripe(organizationId));
+    }
+
+    private int stripe(String organizationId) {
+        return Math.floorMod(organizationId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private String key(String organizationId) {
+        return "organization:" + organizationId;
+    }
+
+    public static class RemoteEntry {
+        private Organization value;
+        private long freshUntil;
+
+        public Organization getValue() {
+            return value;
+        }
+
+        public void setValue(Organization value) {
+            this.value = value;
+        }
+
+        public long getFreshUntil() {
+            return freshUntil;
+        }
+
+        public void setFreshUntil(long freshUntil) {
+            this.freshUntil = freshUntil;
+        }
+    }
+
+    private static final class LocalEntry {
+        private final Organization organization;
+        private final long expiresAt;
+
+        private LocalEntry(Organization organization, long expiresAt) {
+            this.organization = organization;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.action.licensing.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one call per key at a time; callers arriving while a call for their key is running
+ * wait for it and get the same result or exception instead of starting their own.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder collapsed = new LongAdder();
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            collapsed.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        calls.increment();
+        try {
+            V value = call.get();
+            created.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too, otherwise the callers waiting on this call would block forever
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    public boolean isInFlight(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * Calls actually made
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Callers served by a call another caller had already started
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+}
@@ -0,0 +1,172 @@
+package com.action.licensing.clients;
+
+import com.action.licensing.model.Organization;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Micro-batches single organization lookups into {@code POST /v1/organizations/batch} calls.
+ * A batch is sent {@code max-delay-ms} after its first lookup or as soon as it holds
+ * {@code max-size} distinct ids, whichever comes first. A caller waits at most {@code timeout-ms} for
+ * its batch.
+ */
+@Component
+public class OrganizationBatchClient {
+
+    @Autowired
+    private OrganizationFeignClient organizationFeignClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${organization.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${organization.batch.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Value("${organization.batch.threads:4}")
+    private int threads;
+
+    @Value("${organization.batch.timeout-ms:3500}")
+    private long timeoutMs;
+
+    private final LongAdder batchesSent = new LongAdder();
+
+    private final LongAdder lookups = new LongAdder();
+
+    private Map<String, CompletableFuture<Organization>> current;
+
+    private ScheduledExecutorService timer;
+
+    private ExecutorService callers;
+
+    @PostConstruct
+    public void start() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "organization-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger count = new AtomicInteger();
+        callers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "organization-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        FunctionCounter.builder("organization.batch.calls", batchesSent, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("organization.batch.lookups", lookups, LongAdder::sum).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        callers.shutdown();
+    }
+
+    /**
+     * Organization by id, fetched together with other lookups made within the batch window
+     *
+     * @return the organization, null when it does not exist
+     */
+    public Organization getOrganization(String organizationId) {
+        try {
+            return submit(organizationId).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Organization batch lookup timed out after " + timeoutMs + " ms [" + organizationId + "]", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for organization " + organizationId, e);
+        }
+    }
+
+    /**
+     * Organizations by id in one bulk call, missing ids are left out of the map
+     */
+    public Map<String, Organization> getOrganizations(Collection<String> organizationIds) {
+        Map<String, Organization> organizations = new HashMap<>();
+        if (organizationIds.isEmpty()) {
+            return organizations;
+        }
+        batchesSent.increment();
+        lookups.add(organizationIds.size());
+        organizationFeignClient.getOrganizations(new ArrayList<>(organizationIds))
+                .forEach(organization -> organizations.put(organization.getId(), organization));
+        return organizations;
+    }
+
+    private CompletableFuture<Organization> submit(String organizationId) {
+        Map<String, CompletableFuture<Organization>> full = null;
+        CompletableFuture<Organization> future;
+        synchronized (this) {
+            if (current == null) {
+                Map<String, CompletableFuture<Organization>> batch = new LinkedHashMap<>();
+                timer.schedule(() -> flush(batch), maxDelayMs, TimeUnit.MILLISECONDS);
+                current = batch;
+            }
+            future = current.computeIfAbsent(organizationId, id -> new CompletableFuture<>());
+            if (current.size() >= maxBatchSize) {
+                full = current;
+                current = null;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    private void flush(Map<String, CompletableFuture<Organization>> batch) {
+        synchronized (this) {
+            if (current != batch) {
+                // Already sent because it filled up
+                return;
+            }
+            current = null;
+        }
+        send(batch);
+    }
+
+    private void send(Map<String, CompletableFuture<Organization>> batch) {
+        try {
+            callers.execute(() -> {
+                try {
+                    Map<String, Organization> organizations = getOrganizations(batch.keySet());
+                    batch.forEach((id, future) -> future.complete(organizations.get(id)));
+                } catch (Throwable e) {
+                    batch.values().forEach(future -> future.completeExceptionally(e));
+                    throw e;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopped, nobody would ever complete the batch
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -2,34 +2,33 @@ package com.action.licensing.clients;
 
 import com.action.licensing.model.Organization;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
-
 @Component
 public class OrganizationDiscoveryClient {
 
     @Autowired
-    private DiscoveryClient discoveryClient;
+    private OrganizationLoadBalancer loadBalancer;
 
-    public Organization getOrganization(String organizationId) {
-        RestTemplate restTemplate = new RestTemplate();
-        List<ServiceInstance> instances = discoveryClient.getInstances("organizationservice");
+    @Autowired
+    @Qualifier("plainRestTemplate")
+    private RestTemplate restTemplate;
 
-        if (instances.isEmpty()) return null;
-        String serviceUri = String.format("%s/v1/organizations/%s", instances.get(0).getUri().toString(), organizationId);
+    public Organization getOrganization(String organizationId) {
+        return loadBalancer.execute(instance -> {
+            String serviceUri = String.format("%s/v1/organizations/%s", instance.getUri().toString(), organizationId);
 
-        ResponseEntity<Organization> restExchange =
-                restTemplate.exchange(
-                        serviceUri,
-                        HttpMethod.GET,
-                        null, Organization.class, organizationId);
+            ResponseEntity<Organization> restExchange =
+                    restTemplate.exchange(
+                            serviceUri,
+                            HttpMethod.GET,
+                            null, Organization.class, organizationId);
 
-        return restExchange.getBody();
+            return restExchange.getBody();
+        });
     }
-}
\ No newline at end of file
+}
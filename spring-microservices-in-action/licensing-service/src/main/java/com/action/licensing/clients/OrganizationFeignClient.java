@@ -4,9 +4,16 @@ import com.action.licensing.model.Organization;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient("organizationservice")
 public interface OrganizationFeignClient {
     @GetMapping(value = "/v1/organizations/{organizationId}", consumes = "application/json")
     Organization getOrganization(@PathVariable("organizationId") String organizationId);
+
+    @PostMapping(value = "/v1/organizations/batch", consumes = "application/json")
+    List<Organization> getOrganizations(@RequestBody List<String> organizationIds);
 }
@@ -0,0 +1,36 @@
+package com.action.licensing.clients;
+
+import com.action.licensing.cache.SingleFlight;
+import com.action.licensing.model.Organization;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent fetches of the same organization into one outbound call.
+ * Outbound and collapsed calls are counted in the {@code organization.fetch.calls} metric.
+ */
+@Component
+public class OrganizationFetchCoalescer {
+
+    private final SingleFlight<String, Organization> fetches = new SingleFlight<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        FunctionCounter.builder("organization.fetch.calls", fetches, SingleFlight::getCalls)
+                .tag("result", "outbound").register(meterRegistry);
+        FunctionCounter.builder("organization.fetch.calls", fetches, SingleFlight::getCollapsed)
+                .tag("result", "collapsed").register(meterRegistry);
+    }
+
+    public Organization fetch(String organizationId, Supplier<Organization> call) {
+        return fetches.execute(organizationId, call);
+    }
+}
@@ -0,0 +1,188 @@
+package com.action.licensing.clients;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Picks an organization-server instance with power-of-two-choices: two random instances are compared
+ * and the one with the lower cost wins, cost being the exponentially weighted moving average of its
+ * observed latency times its in-flight calls plus one. The instance list comes from the
+ * {@link DiscoveryClient} and is refreshed in the background instead of on every call.
+ * <p>
+ * Failed calls are recorded with {@code failure-penalty-ms} instead of their real latency, so an instance
+ * that fails fast does not look like the fastest one. An instance without a latency sample yet costs the
+ * penalty per call in flight, so a new instance is not flooded before its first response.
+ */
+@Component
+public class OrganizationLoadBalancer {
+
+    public static final String SERVICE_ID = "organizationservice";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private volatile List<InstanceStats> instances = Collections.emptyList();
+
+    private ScheduledExecutorService refresher;
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Value("${organization.lb.refresh-ms:5000}")
+    private long refreshMs;
+
+    @Value("${organization.lb.decay-ms:10000}")
+    private long decayMs;
+
+    @Value("${organization.lb.failure-penalty-ms:${organization.http.read-timeout-ms:3000}}")
+    private long failurePenaltyMs;
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "organization-lb-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Run the call against the chosen instance and record its latency
+     *
+     * @return the call's result, null when no instance is known yet
+     */
+    public <T> T execute(Function<ServiceInstance, T> call) {
+        InstanceStats chosen = choose();
+        if (chosen == null) {
+            return null;
+        }
+        chosen.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.apply(chosen.instance);
+            failed = false;
+            return result;
+        } catch (HttpClientErrorException e) {
+            // A 4xx is a normal answer from a healthy instance
+            failed = false;
+            throw e;
+        } finally {
+            chosen.inFlight.decrementAndGet();
+            chosen.observe(failed ? TimeUnit.MILLISECONDS.toNanos(failurePenaltyMs) : System.nanoTime() - start);
+        }
+    }
+
+    private InstanceStats choose() {
+        // Only the background refresh queries discovery; before its first run there is nothing to choose
+        List<InstanceStats> current = instances;
+        int size = current.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return current.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        InstanceStats a = current.get(first);
+        InstanceStats b = current.get(second);
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Refreshing {} instances failed, keeping {} cached", SERVICE_ID, instances.size(), e);
+        }
+    }
+
+    private synchronized void refresh() {
+        Map<String, InstanceStats> previous = new HashMap<>();
+        instances.forEach(stats -> previous.put(key(stats.instance), stats));
+        List<InstanceStats> refreshed = new ArrayList<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(SERVICE_ID)) {
+            // Keep the latency history of instances that are still registered
+            InstanceStats stats = previous.get(key(instance));
+            refreshed.add(stats != null ? stats : new InstanceStats(instance, TimeUnit.MILLISECONDS.toNanos(decayMs),
+                    TimeUnit.MILLISECONDS.toNanos(failurePenaltyMs)));
+        }
+        instances = Collections.unmodifiableList(refreshed);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static final class InstanceStats {
+        private final ServiceInstance instance;
+        private final long decayNanos;
+        private final long penaltyNanos;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long lastObserved = System.nanoTime();
+
+        private InstanceStats(ServiceInstance instance, long decayNanos, long penaltyNanos) {
+            this.instance = instance;
+            this.decayNanos = decayNanos;
+            this.penaltyNanos = penaltyNanos;
+        }
+
+        /**
+         * The average also decays while the instance is not called, so one slow response does not keep an
+         * instance out of rotation for good
+         */
+        private synchronized double cost() {
+            int pending = inFlight.get();
+            if (ewmaNanos == 0 && pending > 0) {
+                // No sample yet, do not let it win every comparison until its first response
+                return (double) penaltyNanos * pending;
+            }
+            return ewmaNanos * decay(System.nanoTime()) * (pending + 1);
+        }
+
+        /**
+         * Time-decayed average: the weight of the history halves roughly every 0.7 * decay
+         */
+        private synchronized void observe(long latencyNanos) {
+            long now = System.nanoTime();
+            double weight = decay(now);
+            lastObserved = now;
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+
+        private double decay(long now) {
+            return Math.exp(-(double) Math.max(0, now - lastObserved) / decayNanos);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.action.licensing.clients;
+
+import com.action.licensing.model.Organization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Non-blocking organization client; the request thread is released while the call is in flight.
+ */
+@Component
+public class OrganizationWebClient {
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Value("${organization.service.url:http://organizationservice}")
+    private String baseUrl;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().baseUrl(baseUrl).build();
+    }
+
+    /**
+     * @return the organization, empty when it does not exist
+     */
+    public Mono<Organization> getOrganization(String organizationId) {
+        return webClient.get()
+                .uri("/v1/organizations/{organizationId}", organizationId)
+                .retrieve()
+                .bodyToMono(Organization.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+}
@@ -0,0 +1,24 @@
+package com.action.licensing.config;
+
+import com.action.licensing.cache.OrganizationCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class RedisConfig {
+    @Bean
+    public RedisMessageListenerContainer organizationChangeListener(RedisConnectionFactory factory,
+                                                                    OrganizationCache organizationCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(
+                (message, pattern) -> organizationCache.evict(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(OrganizationCache.CHANGE_CHANNEL));
+        return container;
+    }
+}
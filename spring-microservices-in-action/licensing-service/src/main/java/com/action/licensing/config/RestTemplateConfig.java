@@ -1,13 +1,87 @@
 package com.action.licensing.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pooled keep-alive HTTP client shared by the RestTemplate, discovery and Feign organization clients.
+ * Feign picks up the {@link CloseableHttpClient} bean through feign-httpclient.
+ */
 @Configuration
 public class RestTemplateConfig {
+
+    @Value("${organization.http.max-total:200}")
+    private int maxTotal;
+
+    @Value("${organization.http.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${organization.http.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${organization.http.read-timeout-ms:3000}")
+    private int readTimeoutMs;
+
+    @Value("${organization.http.pool-timeout-ms:500}")
+    private int poolTimeoutMs;
+
+    @Value("${organization.http.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        // Revalidate connections that sat idle long enough for the server to have dropped them
+        connectionManager.setValidateAfterInactivity(2000);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "organization").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(poolTimeoutMs)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Resolves service names such as {@code http://ORGANIZATIONSERVICE} through the load balancer
+     */
+    @Bean
+    @Primary
+    @LoadBalanced
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * For callers that already picked an instance URI themselves
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate plainRestTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
@@ -2,13 +2,25 @@ package com.action.licensing.controller;
 
 import com.action.licensing.config.ServiceConfig;
 import com.action.licensing.model.License;
+import com.action.licensing.model.Organization;
 import com.action.licensing.services.LicenseService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -20,12 +32,44 @@ public class LicenseServiceController {
     @Autowired
     private ServiceConfig serviceConfig;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping(value = "/")
     public List<License> getLicenses(@PathVariable("organizationId") String organizationId) {
 
         return licenseService.getLicensesByOrg(organizationId);
     }
 
+    @GetMapping(value = "/enriched")
+    public ResponseEntity<StreamingResponseBody> getEnrichedLicenses(@PathVariable("organizationId") String organizationId,
+                                                                     @RequestParam(value = "clientType", defaultValue = "") String clientType) {
+        // Resolved before the body is returned, so a missing or failing organization is a 404 or 5xx rather than a cut-off 200
+        Organization org = licenseService.getOrganization(organizationId, clientType);
+        if (org == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // One value per line; the servlet stream is flushed and closed by the container, not per value
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try {
+                licenseService.streamLicensesByOrg(organizationId, org, license -> {
+                    try {
+                        writer.writeValue(out, license);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @GetMapping(value = "/{licenseId}")
     public License getLicenses(@PathVariable("organizationId") String organizationId,
                                @PathVariable("licenseId") String licenseId) {
@@ -33,6 +77,13 @@ public class LicenseServiceController {
         return licenseService.getLicense(organizationId, licenseId, "");
     }
 
+    @GetMapping(value = "/{licenseId}/reactive")
+    public Mono<License> getLicenseReactive(@PathVariable("organizationId") String organizationId,
+                                            @PathVariable("licenseId") String licenseId) {
+
+        return licenseService.getLicenseReactive(organizationId, licenseId);
+    }
+
     @GetMapping(value = "/{licenseId}/{clientType}")
     public License getLicensesWithClient(@PathVariable("organizationId") String organizationId,
                                          @PathVariable("licenseId") String licenseId,
@@ -1,15 +1,23 @@
 package com.action.licensing.repository;
 
 import com.action.licensing.model.License;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface LicenseRepository extends CrudRepository<License, String> {
 
     public List<License> findByOrganizationId(String organizationId);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    public Stream<License> streamByOrganizationId(String organizationId);
+
     public License findByOrganizationIdAndLicenseId(String organizationId, String licenseId);
 }
@@ -0,0 +1,11 @@
+package com.action.licensing.resilience;
+
+/**
+ * Thrown instead of making a call when the circuit is open or the bulkhead is full
+ */
+public class CallRejectedException extends RuntimeException {
+
+    public CallRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package com.action.licensing.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore bulkhead, circuit breaker and slow-call timeout for one client, run on the caller's thread.
+ * <p>
+ * The circuit opens when at least {@code minCalls} outcomes are in the window and the share of failures
+ * reaches the threshold; calls slower than the timeout count as failures. After {@code openMs} a few
+ * trial calls are let through: if they all succeed the circuit closes, one failure opens it again.
+ * The hard cutoff for a hung call is the HTTP client's read timeout, which should match {@code timeoutMs}.
+ */
+public class ClientGuard {
+
+    public enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int level;
+
+        State(int level) {
+            this.level = level;
+        }
+
+        /**
+         * Value published as the circuit state gauge: 0 closed, 1 half-open, 2 open
+         */
+        public int getLevel() {
+            return level;
+        }
+    }
+
+    private final String name;
+
+    private final Semaphore bulkhead;
+
+    private final long maxWaitMs;
+
+    private final long timeoutNanos;
+
+    private final int minCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final SlidingWindow window;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private State state = State.CLOSED;
+
+    private long openUntil;
+
+    private int trialPermits;
+
+    private int trialSuccesses;
+
+    public ClientGuard(String name, int maxConcurrent, long maxWaitMs, long timeoutMs, int windowSize, int minCalls,
+                       double failureRateThreshold, long openMs, int halfOpenCalls) {
+        this.name = name;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxWaitMs = maxWaitMs;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new SlidingWindow(windowSize);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        if (!acquirePermission()) {
+            rejected.increment();
+            throw new CallRejectedException("Circuit open for " + name);
+        }
+        boolean entered;
+        try {
+            entered = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            releaseTrialPermit();
+            rejected.increment();
+            throw new CallRejectedException("Bulkhead full for " + name);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            bulkhead.release();
+            long latency = System.nanoTime() - start;
+            onResult(failed || latency > timeoutNanos, latency);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return window.getFailureRate();
+    }
+
+    public synchronized double getMeanLatencyMs() {
+        return window.getMeanLatencyMs();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getAvailablePermits() {
+        return bulkhead.availablePermits();
+    }
+
+    private synchronized boolean acquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openUntil < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    private synchronized void releaseTrialPermit() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    private synchronized void onResult(boolean failure, long latencyNanos) {
+        window.record(failure, latencyNanos);
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++trialSuccesses >= halfOpenCalls) {
+                state = State.CLOSED;
+                window.reset();
+            }
+        } else if (state == State.CLOSED && window.getCount() >= minCalls
+                && window.getFailureRate() >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.nanoTime() + openNanos;
+    }
+}
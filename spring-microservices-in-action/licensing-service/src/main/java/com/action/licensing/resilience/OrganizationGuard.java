@@ -0,0 +1,71 @@
+package com.action.licensing.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One {@link ClientGuard} per organization client ({@code feign}, {@code rest}, {@code discovery},
+ * {@code batch}), so a failing transport opens only its own circuit. Window statistics are published
+ * as {@code organization.client.*} metrics tagged with the client; {@code organization.client.circuit.state}
+ * is 0 while closed, 1 while half-open and 2 while open.
+ */
+@Component
+public class OrganizationGuard {
+
+    private final Map<String, ClientGuard> guards = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${organization.guard.max-concurrent:20}")
+    private int maxConcurrent;
+
+    @Value("${organization.guard.max-wait-ms:10}")
+    private long maxWaitMs;
+
+    @Value("${organization.guard.timeout-ms:3000}")
+    private long timeoutMs;
+
+    @Value("${organization.guard.window-size:100}")
+    private int windowSize;
+
+    @Value("${organization.guard.min-calls:20}")
+    private int minCalls;
+
+    @Value("${organization.guard.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${organization.guard.open-ms:5000}")
+    private long openMs;
+
+    @Value("${organization.guard.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    public <T> T call(String client, Supplier<T> call) {
+        return guards.computeIfAbsent(client, this::create).call(call);
+    }
+
+    private ClientGuard create(String client) {
+        ClientGuard guard = new ClientGuard(client, maxConcurrent, maxWaitMs, timeoutMs, windowSize, minCalls,
+                failureRateThreshold, openMs, halfOpenCalls);
+        Gauge.builder("organization.client.failure.rate", guard, ClientGuard::getFailureRate)
+                .tag("client", client).register(meterRegistry);
+        Gauge.builder("organization.client.latency.mean", guard, ClientGuard::getMeanLatencyMs)
+                .tag("client", client).baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("organization.client.circuit.state", guard, g -> g.getState().getLevel())
+                .tag("client", client).register(meterRegistry);
+        Gauge.builder("organization.client.bulkhead.available", guard, ClientGuard::getAvailablePermits)
+                .tag("client", client).register(meterRegistry);
+        FunctionCounter.builder("organization.client.rejected", guard, ClientGuard::getRejected)
+                .tag("client", client).register(meterRegistry);
+        return guard;
+    }
+}
@@ -0,0 +1,63 @@
+package com.action.licensing.resilience;
+
+/**
+ * Outcomes of the last {@code size} calls in a ring buffer, with running totals so reads are O(1).
+ * Not thread-safe, guarded by the owning {@link ClientGuard}.
+ */
+class SlidingWindow {
+
+    private final boolean[] failures;
+
+    private final long[] latenciesNanos;
+
+    private int next;
+
+    private int count;
+
+    private int failureCount;
+
+    private long latencySumNanos;
+
+    SlidingWindow(int size) {
+        this.failures = new boolean[size];
+        this.latenciesNanos = new long[size];
+    }
+
+    void record(boolean failure, long latencyNanos) {
+        if (count == failures.length) {
+            // Overwrite the oldest outcome
+            if (failures[next]) {
+                failureCount--;
+            }
+            latencySumNanos -= latenciesNanos[next];
+        } else {
+            count++;
+        }
+        failures[next] = failure;
+        latenciesNanos[next] = latencyNanos;
+        if (failure) {
+            failureCount++;
+        }
+        latencySumNanos += latencyNanos;
+        next = (next + 1) % failures.length;
+    }
+
+    void reset() {
+        next = 0;
+        count = 0;
+        failureCount = 0;
+        latencySumNanos = 0;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    double getFailureRate() {
+        return count == 0 ? 0 : (double) failureCount / count;
+    }
+
+    double getMeanLatencyMs() {
+        return count == 0 ? 0 : latencySumNanos / 1e6 / count;
+    }
+}
@@ -1,23 +1,43 @@
 package com.action.licensing.services;
 
+import com.action.licensing.cache.LicenseCache;
+import com.action.licensing.cache.OrganizationCache;
+import com.action.licensing.clients.OrganizationBatchClient;
 import com.action.licensing.clients.OrganizationDiscoveryClient;
 import com.action.licensing.clients.OrganizationFeignClient;
+import com.action.licensing.clients.OrganizationFetchCoalescer;
 import com.action.licensing.clients.OrganizationRestTemplateClient;
+import com.action.licensing.clients.OrganizationWebClient;
 import com.action.licensing.config.ServiceConfig;
 import com.action.licensing.model.License;
 import com.action.licensing.model.Organization;
 import com.action.licensing.repository.LicenseRepository;
+import com.action.licensing.resilience.OrganizationGuard;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class LicenseService {
     @Autowired
     private LicenseRepository licenseRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     ServiceConfig config;
 
@@ -30,11 +50,31 @@ public class LicenseService {
     @Autowired
     OrganizationDiscoveryClient organizationDiscoveryClient;
 
+    @Autowired
+    OrganizationBatchClient organizationBatchClient;
+
+    @Autowired
+    OrganizationWebClient organizationWebClient;
+
+    @Autowired
+    LicenseCache licenseCache;
+
+    @Autowired
+    OrganizationCache organizationCache;
+
+    @Autowired
+    OrganizationFetchCoalescer organizationFetchCoalescer;
+
+    @Autowired
+    OrganizationGuard organizationGuard;
+
     public License getLicense(String organizationId, String licenseId) {
         License license = licenseRepository.findByOrganizationIdAndLicenseId(
                 organizationId, licenseId);
         license.setComment(config.getExampleProperty());
-        return licenseRepository.save(license);
+        License saved = licenseRepository.save(license);
+        licenseCache.evict(organizationId, licenseId);
+        return saved;
     }
 
     public List<License> getLicensesByOrg(String organizationId) {
@@ -47,10 +87,56 @@ public class LicenseService {
     }
 
     public License getLicense(String organizationId, String licenseId, String clientType) {
-        License license = licenseRepository.findByOrganizationIdAndLicenseId(organizationId, licenseId);
+        License license = licenseCache.get(organizationId, licenseId,
+                () -> licenseRepository.findByOrganizationIdAndLicenseId(organizationId, licenseId));
+        if (license == null) {
+            return null;
+        }
+        // Enriched on read, the license cache holds rows only and must not pin old organization fields
+        return enrich(license, retrieveOrgInfo(organizationId, clientType));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getLicense(String, String, String)}: the license lookup runs on a
+     * worker thread while the organization is fetched over {@link OrganizationWebClient}, and the two
+     * results are zipped. Empty when the license or the organization does not exist.
+     */
+    public Mono<License> getLicenseReactive(String organizationId, String licenseId) {
+        Mono<License> license = Mono.fromCallable(() -> licenseRepository.findByOrganizationIdAndLicenseId(organizationId, licenseId))
+                .subscribeOn(Schedulers.boundedElastic());
+        return Mono.zip(license, organizationWebClient.getOrganization(organizationId))
+                .map(tuple -> enrich(tuple.getT1(), tuple.getT2()));
+    }
+
+    /**
+     * Organization through the cache and the guarded client for {@code clientType}
+     *
+     * @return the organization, null when it does not exist
+     */
+    public Organization getOrganization(String organizationId, String clientType) {
+        return retrieveOrgInfo(organizationId, clientType);
+    }
 
-        Organization org = retrieveOrgInfo(organizationId, clientType);
+    /**
+     * Licenses of the organization with the fields of {@code org} filled in, handed to the consumer one by one.
+     * The organization is resolved by the caller, before anything is written, and rows are read through
+     * a cursor in a read-only transaction and detached after use, so memory does not grow with the number
+     * of licenses.
+     */
+    public void streamLicensesByOrg(String organizationId, Organization org, Consumer<License> consumer) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<License> licenses = licenseRepository.streamByOrganizationId(organizationId)) {
+                licenses.forEach(license -> {
+                    entityManager.detach(license);
+                    consumer.accept(enrich(license, org));
+                });
+            }
+        });
+    }
 
+    private License enrich(License license, Organization org) {
         return license
                 .withOrganizationName(org.getName())
                 .withContactName(org.getContactName())
@@ -60,6 +146,23 @@ public class LicenseService {
     }
 
     private Organization retrieveOrgInfo(String organizationId, String clientType) {
+        String client = clientName(clientType);
+        return organizationCache.get(organizationId, () -> organizationFetchCoalescer.fetch(organizationId,
+                () -> organizationGuard.call(client, () -> fetchOrgInfo(organizationId, client))));
+    }
+
+    private String clientName(String clientType) {
+        switch (clientType) {
+            case "feign":
+            case "discovery":
+            case "batch":
+                return clientType;
+            default:
+                return "rest";
+        }
+    }
+
+    private Organization fetchOrgInfo(String organizationId, String clientType) {
         Organization organization = null;
 
         switch (clientType) {
@@ -75,6 +178,9 @@ public class LicenseService {
                 System.out.println("I am using the discovery client");
                 organization = organizationDiscoveryClient.getOrganization(organizationId);
                 break;
+            case "batch":
+                organization = organizationBatchClient.getOrganization(organizationId);
+                break;
             default:
                 organization = organizationRestClient.getOrganization(organizationId);
         }
@@ -0,0 +1,77 @@
+package com.action.licensing.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Future<?>[] futures = new Future<?>[8];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = pool.submit(() -> singleFlight.execute("org", () -> {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "organization";
+            }));
+        }
+        while (singleFlight.getCalls() + singleFlight.getCollapsed() < futures.length) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        release.countDown();
+        for (Future<?> future : futures) {
+            assertEquals("organization", future.get());
+        }
+        pool.shutdown();
+        assertEquals(1, calls.get());
+        assertEquals(7, singleFlight.getCollapsed());
+    }
+
+    @Test
+    void followersGetTheLeadersError() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        AssertionError failure = new AssertionError("decoder failed");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Future<?>[] futures = new Future<?>[4];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = pool.submit(() -> singleFlight.execute("org", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw failure;
+            }));
+        }
+        while (singleFlight.getCalls() + singleFlight.getCollapsed() < futures.length) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        release.countDown();
+        for (Future<?> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        pool.shutdown();
+        assertEquals(1, singleFlight.getCalls());
+    }
+}
@@ -0,0 +1,143 @@
+package com.action.licensing.clients;
+
+import com.action.licensing.model.Organization;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Blocking RestTemplate calls against WebClient calls to a stub organization service answering after
+ * a fixed delay. Logs the p99 latency and the client threads each path needed. The comparison is tagged
+ * {@code load} and left out of the default test run.
+ */
+@Slf4j
+class OrganizationClientLoadTest {
+
+    private static final int REQUESTS = 2000;
+
+    private static final int CONCURRENCY = 100;
+
+    private static final long SERVICE_DELAY_MS = 20;
+
+    private HttpServer server;
+
+    private ExecutorService serverPool;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        serverPool = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(serverPool);
+        server.createContext("/v1/organizations/", exchange -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(SERVICE_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":\"org\",\"name\":\"name\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/v1/organizations/missing", exchange -> {
+            byte[] body = "{\"status\":404,\"error\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(404, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverPool.shutdownNow();
+    }
+
+    @Test
+    @Tag("load")
+    void blockingAgainstReactive() throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        ExecutorService requestThreads = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<Long>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(requestThreads.submit(() -> {
+                long begin = System.nanoTime();
+                restTemplate.getForObject(baseUrl + "/v1/organizations/{id}", Organization.class, "org");
+                return System.nanoTime() - begin;
+            }));
+        }
+        List<Long> blocking = new ArrayList<>(REQUESTS);
+        for (Future<Long> future : futures) {
+            blocking.add(future.get());
+        }
+        long blockingElapsed = System.nanoTime() - start;
+        requestThreads.shutdown();
+
+        OrganizationWebClient client = new OrganizationWebClient();
+        ReflectionTestUtils.setField(client, "webClientBuilder", WebClient.builder());
+        ReflectionTestUtils.setField(client, "baseUrl", baseUrl);
+        client.init();
+        start = System.nanoTime();
+        List<Long> reactive = Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.defer(() -> {
+                    long begin = System.nanoTime();
+                    return client.getOrganization("org").map(organization -> System.nanoTime() - begin);
+                }), CONCURRENCY)
+                .collectList()
+                .block();
+        long reactiveElapsed = System.nanoTime() - start;
+        long reactorThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("reactor-http"))
+                .count();
+
+        log.info("Blocking: {} client threads, p99 {} ms, {} req/s", CONCURRENCY, p99Ms(blocking),
+                REQUESTS * TimeUnit.SECONDS.toNanos(1) / blockingElapsed);
+        log.info("Reactive: {} client threads, p99 {} ms, {} req/s", reactorThreads, p99Ms(reactive),
+                REQUESTS * TimeUnit.SECONDS.toNanos(1) / reactiveElapsed);
+        assertEquals(REQUESTS, blocking.size());
+        assertEquals(REQUESTS, reactive.size());
+    }
+
+    @Test
+    void notFoundIsEmpty() {
+        OrganizationWebClient client = new OrganizationWebClient();
+        ReflectionTestUtils.setField(client, "webClientBuilder", WebClient.builder());
+        ReflectionTestUtils.setField(client, "baseUrl", baseUrl);
+        client.init();
+        assertNull(client.getOrganization("missing").block());
+    }
+
+    private static long p99Ms(List<Long> latenciesNanos) {
+        List<Long> sorted = new ArrayList<>(latenciesNanos);
+        Collections.sort(sorted);
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get((int) (sorted.size() * 0.99) - 1));
+    }
+}
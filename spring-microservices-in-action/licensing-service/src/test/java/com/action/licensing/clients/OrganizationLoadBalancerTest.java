@@ -0,0 +1,97 @@
+package com.action.licensing.clients;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrganizationLoadBalancerTest {
+
+    @Test
+    void slowInstanceGetsLessTraffic() throws InterruptedException {
+        OrganizationLoadBalancer loadBalancer = loadBalancer("fast", "slow");
+        Map<String, Integer> calls = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            loadBalancer.execute(instance -> {
+                calls.merge(instance.getHost(), 1, Integer::sum);
+                if (instance.getHost().equals("slow")) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return null;
+            });
+        }
+        loadBalancer.stop();
+        assertTrue(calls.getOrDefault("fast", 0) > calls.getOrDefault("slow", 0) * 4, calls.toString());
+    }
+
+    @Test
+    void failingInstanceGetsLessTraffic() {
+        OrganizationLoadBalancer loadBalancer = loadBalancer("healthy", "failing");
+        Map<String, Integer> calls = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            try {
+                loadBalancer.execute(instance -> {
+                    calls.merge(instance.getHost(), 1, Integer::sum);
+                    if (instance.getHost().equals("failing")) {
+                        throw new IllegalStateException("connection refused");
+                    }
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+            } catch (IllegalStateException expected) {
+                // Fails immediately, faster than any healthy call
+            }
+        }
+        loadBalancer.stop();
+        assertTrue(calls.getOrDefault("healthy", 0) > calls.getOrDefault("failing", 0) * 4, calls.toString());
+    }
+
+    private OrganizationLoadBalancer loadBalancer(String... hosts) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (String host : hosts) {
+            instances.add(new DefaultServiceInstance(host, OrganizationLoadBalancer.SERVICE_ID, host, 8081, false));
+        }
+        OrganizationLoadBalancer loadBalancer = new OrganizationLoadBalancer();
+        ReflectionTestUtils.setField(loadBalancer, "discoveryClient", new DiscoveryClient() {
+            @Override
+            public String description() {
+                return "test";
+            }
+
+            @Override
+            public List<ServiceInstance> getInstances(String serviceId) {
+                return instances;
+            }
+
+            @Override
+            public List<String> getServices() {
+                return Collections.singletonList(OrganizationLoadBalancer.SERVICE_ID);
+            }
+        });
+        ReflectionTestUtils.setField(loadBalancer, "refreshMs", 60000L);
+        ReflectionTestUtils.setField(loadBalancer, "decayMs", 1000L);
+        ReflectionTestUtils.setField(loadBalancer, "failurePenaltyMs", 3000L);
+        loadBalancer.start();
+        // Calls are only routed once the background refresh has filled the instance list
+        ReflectionTestUtils.invokeMethod(loadBalancer, "refresh");
+        return loadBalancer;
+    }
+}
@@ -0,0 +1,46 @@
+package com.action.licensing.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientGuardTest {
+
+    @Test
+    void opensOnFailuresAndClosesAfterTrials() throws InterruptedException {
+        ClientGuard guard = new ClientGuard("rest", 10, 0, 1000, 10, 4, 0.5, 50, 2);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+                throw new IllegalStateException("down");
+            }));
+        }
+        assertEquals(ClientGuard.State.OPEN, guard.getState());
+        assertThrows(CallRejectedException.class, () -> guard.call(() -> "organization"));
+
+        TimeUnit.MILLISECONDS.sleep(60);
+        assertEquals("organization", guard.call(() -> "organization"));
+        assertEquals(ClientGuard.State.HALF_OPEN, guard.getState());
+        assertEquals("organization", guard.call(() -> "organization"));
+        assertEquals(ClientGuard.State.CLOSED, guard.getState());
+        assertEquals(1, guard.getRejected());
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        ClientGuard guard = new ClientGuard("feign", 10, 0, 1, 10, 2, 0.5, 1000, 1);
+        for (int i = 0; i < 2; i++) {
+            guard.call(() -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "organization";
+            });
+        }
+        assertEquals(ClientGuard.State.OPEN, guard.getState());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.organization.config;
+
+import com.example.organization.limit.ConcurrencyLimitFilter;
+import com.example.organization.limit.VegasLimit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Value("${organization.limit.initial:20}")
+    private int initialLimit;
+
+    @Value("${organization.limit.min:5}")
+    private int minLimit;
+
+    @Value("${organization.limit.max:200}")
+    private int maxLimit;
+
+    @Value("${organization.limit.probe-interval:1000}")
+    private int probeInterval;
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry) {
+        VegasLimit limit = new VegasLimit(initialLimit, minLimit, maxLimit, probeInterval);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit);
+        Gauge.builder("organization.concurrency.limit", limit, VegasLimit::getLimit).register(meterRegistry);
+        Gauge.builder("organization.concurrency.in.flight", filter, ConcurrencyLimitFilter::getInFlight).register(meterRegistry);
+        Gauge.builder("organization.concurrency.rtt.no.load", limit, l -> l.getRttNoLoadNanos() / 1e6)
+                .baseUnit("milliseconds").register(meterRegistry);
+        FunctionCounter.builder("organization.concurrency.rejected", filter, ConcurrencyLimitFilter::getRejected)
+                .register(meterRegistry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/v1/organizations/*");
+        return registration;
+    }
+}
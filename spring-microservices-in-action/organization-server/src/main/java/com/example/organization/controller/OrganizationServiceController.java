@@ -3,8 +3,12 @@ package com.example.organization.controller;
 import com.example.organization.model.Organization;
 import com.example.organization.service.OrganizationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
 
 @RestController
 @RequestMapping(value = "v1/organizations")
@@ -13,14 +17,27 @@ public class OrganizationServiceController {
     @Autowired
     private OrganizationService orgService;
 
+    @Value("${organization.batch.max-ids:500}")
+    private int maxBatchIds;
+
     @GetMapping(value = "/{organizationId}")
     public Organization getOrganization(@PathVariable("organizationId") String organizationId) {
         return orgService.getOrg(organizationId);
     }
 
+    @PostMapping(value = "/batch")
+    public List<Organization> getOrganizations(@RequestBody List<String> organizationIds) {
+        // Bounds the IN list of the lookup
+        if (organizationIds.size() > maxBatchIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchIds + " organization ids per batch");
+        }
+        return orgService.getOrgs(organizationIds);
+    }
+
     @PutMapping(value = "/{organizationId}")
     public void updateOrganization(@PathVariable("organizationId") String orgId, @RequestBody Organization org) {
-        orgService.updateOrg(org);
+        orgService.updateOrg(orgId, org);
     }
 
     @PostMapping(value = "/{organizationId}")
@@ -0,0 +1,29 @@
+package com.example.organization.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the id of every changed or deleted organization on a Redis channel, so services caching
+ * organizations can drop their copies.
+ */
+@Slf4j
+@Component
+public class OrganizationChangePublisher {
+
+    public static final String CHANNEL = "organization-changes";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    public void publishChange(String organizationId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, organizationId);
+        } catch (RuntimeException e) {
+            // The change is already stored; caches catch up when their entries expire
+            log.warn("Publishing organization change failed [{}]", organizationId, e);
+        }
+    }
+}
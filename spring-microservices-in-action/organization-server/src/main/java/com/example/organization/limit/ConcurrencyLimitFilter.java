@@ -0,0 +1,60 @@
+package com.example.organization.limit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects requests with 503 as soon as the number in flight reaches the adaptive {@link VegasLimit},
+ * instead of letting them queue for database connections. Every admitted request feeds its RTT back
+ * into the limit; 5xx responses and exceptions count as drops.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final VegasLimit limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimitFilter(VegasLimit limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int current = inFlight.incrementAndGet();
+        if (current > limit.getLimit()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Concurrency limit reached");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            inFlight.decrementAndGet();
+            limit.onSample(System.nanoTime() - start, current, dropped);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
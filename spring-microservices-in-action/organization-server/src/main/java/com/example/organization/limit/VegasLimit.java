@@ -0,0 +1,94 @@
+package com.example.organization.limit;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * TCP Vegas style concurrency limit. The lowest RTT seen approximates the latency without queueing; the
+ * difference to each sampled RTT estimates how many requests are waiting, and the limit grows while that
+ * queue is short and shrinks once it gets long. Failed requests always shrink it.
+ */
+public class VegasLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int probeInterval;
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private long rttNoLoadNanos;
+
+    private int samplesUntilProbe;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, int probeInterval) {
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+        this.samplesUntilProbe = nextProbe();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Lowest RTT in the current probe period, 0 before the first sample
+     */
+    public synchronized long getRttNoLoadNanos() {
+        return rttNoLoadNanos;
+    }
+
+    /**
+     * @param rttNanos time the request took
+     * @param inFlight requests in flight when it started, itself included
+     * @param dropped  whether it failed; failed samples never update the no-load RTT
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (--samplesUntilProbe <= 0) {
+            // Forget the baseline now and then, so it follows the service when its unloaded latency changes
+            samplesUntilProbe = nextProbe();
+            rttNoLoadNanos = 0;
+        }
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        if (dropped) {
+            // Checked before the baseline: fast failures must shrink the limit, not pass as a new minimum RTT
+            update(estimatedLimit - log);
+            return;
+        }
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+            return;
+        }
+        if (inFlight * 2 < estimatedLimit) {
+            // Demand is well below the limit, the samples say nothing about where the limit should be
+            return;
+        }
+        double queue = Math.ceil(estimatedLimit * (1 - (double) rttNoLoadNanos / rttNanos));
+        double next;
+        if (queue <= log) {
+            next = estimatedLimit + 6 * log;
+        } else if (queue < 3 * log) {
+            next = estimatedLimit + log;
+        } else if (queue > 6 * log) {
+            next = estimatedLimit - log;
+        } else {
+            return;
+        }
+        update(next);
+    }
+
+    private void update(double next) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    private int nextProbe() {
+        // Jittered so instances do not probe in lockstep
+        return probeInterval + ThreadLocalRandom.current().nextInt(probeInterval);
+    }
+}
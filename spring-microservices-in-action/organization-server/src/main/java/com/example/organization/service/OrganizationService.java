@@ -1,11 +1,14 @@
 package com.example.organization.service;
 
 
+import com.example.organization.events.OrganizationChangePublisher;
 import com.example.organization.model.Organization;
 import com.example.organization.repository.OrganizationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -14,20 +17,33 @@ public class OrganizationService {
     @Autowired
     private OrganizationRepository orgRepository;
 
+    @Autowired
+    private OrganizationChangePublisher changePublisher;
+
     public Organization getOrg(String organizationId) {
         return orgRepository.findById(organizationId).orElse(null);
     }
 
+    public List<Organization> getOrgs(List<String> organizationIds) {
+        List<Organization> organizations = new ArrayList<>(organizationIds.size());
+        orgRepository.findAllById(organizationIds).forEach(organizations::add);
+        return organizations;
+    }
+
     public void saveOrg(Organization org) {
         org.setId(UUID.randomUUID().toString());
         orgRepository.save(org);
     }
 
-    public void updateOrg(Organization org) {
+    public void updateOrg(String organizationId, Organization org) {
+        // The path names the organization, the body may leave the id out
+        org.setId(organizationId);
         orgRepository.save(org);
+        changePublisher.publishChange(organizationId);
     }
 
     public void deleteOrg(String organizationId) {
         orgRepository.deleteById(organizationId);
+        changePublisher.publishChange(organizationId);
     }
 }
@@ -0,0 +1,59 @@
+package com.example.organization.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class VegasLimitTest {
+
+    private static final long BASE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void growsWhileLatencyStaysAtBaseline() {
+        VegasLimit limit = new VegasLimit(20, 5, 200, 1_000_000);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASE, limit.getLimit(), false);
+        }
+        Assertions.assertEquals(200, limit.getLimit());
+    }
+
+    @Test
+    public void shrinksWhenRequestsQueue() {
+        VegasLimit limit = new VegasLimit(100, 5, 200, 1_000_000);
+        limit.onSample(BASE, 100, false);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(BASE * 4, limit.getLimit(), false);
+        }
+        // With RTT four times the baseline, the queue estimate stops exceeding 6*log10(limit) near 8
+        Assertions.assertTrue(limit.getLimit() < 20, "limit " + limit.getLimit());
+        Assertions.assertTrue(limit.getLimit() >= 5);
+    }
+
+    @Test
+    public void ignoresSamplesWhenUnderused() {
+        VegasLimit limit = new VegasLimit(50, 5, 200, 1_000_000);
+        limit.onSample(BASE, 1, false);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BASE, 2, false);
+        }
+        Assertions.assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    public void dropsShrinkTheLimit() {
+        VegasLimit limit = new VegasLimit(50, 5, 200, 1_000_000);
+        limit.onSample(BASE, 50, false);
+        limit.onSample(BASE, 50, true);
+        Assertions.assertTrue(limit.getLimit() < 50);
+    }
+
+    @Test
+    public void fastDropsShrinkTheLimitWithoutMovingTheBaseline() {
+        VegasLimit limit = new VegasLimit(50, 5, 200, 1_000_000);
+        limit.onSample(BASE, 50, false);
+        limit.onSample(TimeUnit.MICROSECONDS.toNanos(50), 50, true);
+        Assertions.assertTrue(limit.getLimit() < 50, "limit " + limit.getLimit());
+        Assertions.assertEquals(BASE, limit.getRttNoLoadNanos());
+    }
+}